@@ -0,0 +1,107 @@
+package com.frutolandia.cart;
+
+import com.frutolandia.repository.CartItemRepositoryCustom.CartActivity;
+import com.frutolandia.repository.CartItemRepositoryCustom.CartItemQuantity;
+import com.frutolandia.repository.CartItemRepositoryCustom.CartLine;
+import com.frutolandia.repository.CartItemRepositoryCustom.UserCartLine;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacenamiento de las líneas del carrito.
+ * <p>
+ * Las cantidades son siempre absolutas y se identifican por usuario y
+ * producto. Las implementaciones deben deshacer sus cambios si la
+ * transacción en curso se revierte.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public interface CartStore {
+
+    /**
+     * Obtiene las líneas del carrito de un usuario.
+     *
+     * @param userId ID del usuario
+     * @return líneas en orden de alta; el ID puede ser {@code null} si la
+     *         línea aún no se ha persistido
+     */
+    List<CartLine> findLines(Long userId);
+
+    /**
+     * Suma una cantidad a una línea, creándola si no existe.
+     *
+     * @param userId ID del usuario
+     * @param productId ID del producto
+     * @param quantity cantidad a sumar
+     * @return ID de la línea (puede ser {@code null}) y cantidad resultante
+     */
+    CartItemQuantity addQuantity(Long userId, Long productId, int quantity);
+
+    /**
+     * Fija la cantidad de una línea existente; 0 la elimina.
+     *
+     * @param userId ID del usuario
+     * @param productId ID del producto
+     * @param quantity nueva cantidad
+     * @return ID de la línea (puede ser {@code null}) y cantidad resultante,
+     *         o {@code null} si la línea no existía
+     */
+    CartItemQuantity updateQuantity(Long userId, Long productId, int quantity);
+
+    /**
+     * Sustituye el contenido del carrito.
+     *
+     * @param userId ID del usuario
+     * @param current líneas actuales, tal como las devolvió {@link #findLines}
+     * @param target cantidad final por producto; los productos ausentes se eliminan
+     */
+    void replace(Long userId, List<CartLine> current, Map<Long, Integer> target);
+
+    /**
+     * Vacía el carrito de un usuario.
+     *
+     * @param userId ID del usuario
+     */
+    void clear(Long userId);
+
+    /**
+     * Elimina las líneas de los usuarios indicados que no se han modificado
+     * desde la fecha de corte. Lo usa el barrido de carritos abandonados.
+     *
+     * @param userIds IDs de los usuarios
+     * @param cutoff fecha de corte
+     * @return número de filas eliminadas
+     */
+    int expire(List<Long> userIds, LocalDateTime cutoff);
+
+    /**
+     * Obtiene la última modificación del carrito de cada usuario con líneas.
+     * Lo usa el barrido de carritos abandonados al arrancar.
+     *
+     * @return actividad por usuario
+     */
+    List<CartActivity> findLastActivity();
+
+    /**
+     * Obtiene las líneas de todos los carritos. Lo usa la reconstrucción
+     * periódica de las recomendaciones.
+     *
+     * @return líneas de todos los usuarios
+     */
+    List<UserCartLine> findAllLines();
+
+    /**
+     * Olvida el carrito de un usuario eliminado. Sus filas de
+     * {@code cart_items} ya se han borrado; el almacenamiento descarta
+     * cualquier otro estado que guarde del usuario.
+     *
+     * @param userId ID del usuario
+     */
+    default void discard(Long userId) {
+    }
+}
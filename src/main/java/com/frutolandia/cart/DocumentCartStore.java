@@ -0,0 +1,295 @@
+package com.frutolandia.cart;
+
+import com.frutolandia.catalog.CatalogSnapshot;
+import com.frutolandia.catalog.ProductCatalog;
+import com.frutolandia.exception.BadRequestException;
+import com.frutolandia.model.CartDocument;
+import com.frutolandia.repository.CartItemRepositoryCustom.CartActivity;
+import com.frutolandia.repository.CartItemRepositoryCustom.CartItemQuantity;
+import com.frutolandia.repository.CartItemRepositoryCustom.CartLine;
+import com.frutolandia.repository.CartItemRepositoryCustom.UserCartLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Almacenamiento del carrito en una sola fila por usuario
+ * ({@code frutolandia.cart.store=document}).
+ * <p>
+ * Todas las líneas del carrito se guardan codificadas en la tabla
+ * {@code cart_documents}, de modo que leer o modificar un carrito es una
+ * única operación por clave primaria, tenga las líneas que tenga. Cada
+ * escritura lee el documento con {@code SELECT ... FOR UPDATE}, de modo que
+ * las escrituras simultáneas sobre el mismo carrito esperan a la anterior y
+ * leen su resultado, aplica el cambio y lo reescribe solo si la versión no
+ * ha cambiado. La comprobación de versión cubre las escrituras fuera de una
+ * transacción y la creación simultánea del documento, que se reintentan.
+ * </p>
+ * <p>
+ * La codificación son pares (ID de producto, cantidad) en enteros de
+ * longitud variable, en orden de alta. Las líneas de productos eliminados
+ * se descartan la siguiente vez que se reescribe el carrito.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "frutolandia.cart.store", havingValue = "document")
+public class DocumentCartStore implements CartStore {
+
+    /** Intentos de escritura ante conflictos de versión. */
+    private static final int MAX_ATTEMPTS = 5;
+
+    /** Tamaño máximo del documento codificado (ver {@link CartDocument}). */
+    private static final int MAX_DOCUMENT_BYTES = 4096;
+
+    private static final String SELECT_SQL =
+            "SELECT line_data, version FROM cart_documents WHERE user_id = ?";
+
+    private static final String SELECT_FOR_UPDATE_SQL = SELECT_SQL + " FOR UPDATE";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cart_documents (user_id, line_data, version, updated_at) VALUES (?, ?, 0, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE cart_documents SET line_data = ?, version = version + 1, updated_at = ? "
+                    + "WHERE user_id = ? AND version = ?";
+
+    private static final String DELETE_VERSION_SQL =
+            "DELETE FROM cart_documents WHERE user_id = ? AND version = ?";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM cart_documents WHERE user_id = ?";
+
+    private static final String DELETE_IDLE_SQL =
+            "DELETE FROM cart_documents WHERE user_id = ? AND updated_at < ?";
+
+    private static final String SELECT_ACTIVITY_SQL =
+            "SELECT user_id, updated_at FROM cart_documents";
+
+    private static final String SELECT_ALL_SQL =
+            "SELECT user_id, line_data FROM cart_documents ORDER BY user_id";
+
+    private static final RowMapper<Document> DOCUMENT_MAPPER =
+            (rs, rowNum) -> new Document(decode(rs.getBytes("line_data")), rs.getLong("version"));
+
+    private static final RowMapper<CartActivity> ACTIVITY_MAPPER =
+            (rs, rowNum) -> new CartActivity(rs.getLong("user_id"), rs.getTimestamp("updated_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCatalog productCatalog;
+
+    @Override
+    public List<CartLine> findLines(Long userId) {
+        Document document = load(userId);
+        if (document == null) {
+            return List.of();
+        }
+        List<CartLine> lines = new ArrayList<>(document.quantities().size());
+        document.quantities().forEach((productId, quantity) -> lines.add(new CartLine(null, productId, quantity)));
+        return lines;
+    }
+
+    @Override
+    public CartItemQuantity addQuantity(Long userId, Long productId, int quantity) {
+        return mutate(userId, quantities ->
+                new CartItemQuantity(null, quantities.merge(productId, quantity, Integer::sum)));
+    }
+
+    @Override
+    public CartItemQuantity updateQuantity(Long userId, Long productId, int quantity) {
+        return mutate(userId, quantities -> {
+            if (!quantities.containsKey(productId)) {
+                return null;
+            }
+            if (quantity <= 0) {
+                quantities.remove(productId);
+            } else {
+                quantities.put(productId, quantity);
+            }
+            return new CartItemQuantity(null, Math.max(quantity, 0));
+        });
+    }
+
+    /**
+     * Sustituye el contenido del carrito. No necesita las líneas actuales:
+     * el documento se reescribe entero.
+     */
+    @Override
+    public void replace(Long userId, List<CartLine> current, Map<Long, Integer> target) {
+        mutate(userId, quantities -> {
+            quantities.clear();
+            quantities.putAll(target);
+            return Boolean.TRUE;
+        });
+    }
+
+    @Override
+    public void clear(Long userId) {
+        jdbcTemplate.update(DELETE_SQL, userId);
+    }
+
+    @Override
+    public int expire(List<Long> userIds, LocalDateTime cutoff) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        Timestamp timestamp = Timestamp.valueOf(cutoff);
+        int[] counts = jdbcTemplate.batchUpdate(DELETE_IDLE_SQL, userIds.stream()
+                .map(userId -> new Object[]{userId, timestamp})
+                .toList());
+        return Arrays.stream(counts).map(count -> Math.max(count, 0)).sum();
+    }
+
+    @Override
+    public List<CartActivity> findLastActivity() {
+        return jdbcTemplate.query(SELECT_ACTIVITY_SQL, ACTIVITY_MAPPER);
+    }
+
+    @Override
+    public List<UserCartLine> findAllLines() {
+        List<UserCartLine> lines = new ArrayList<>();
+        jdbcTemplate.query(SELECT_ALL_SQL, rs -> {
+            long userId = rs.getLong("user_id");
+            decode(rs.getBytes("line_data")).forEach((productId, quantity) ->
+                    lines.add(new UserCartLine(userId, productId, quantity)));
+        });
+        return lines;
+    }
+
+    /**
+     * Elimina el documento del usuario, que no depende de {@code cart_items}.
+     */
+    @Override
+    public void discard(Long userId) {
+        jdbcTemplate.update(DELETE_SQL, userId);
+    }
+
+    private Document load(Long userId) {
+        return jdbcTemplate.query(SELECT_SQL, DOCUMENT_MAPPER, userId).stream().findFirst().orElse(null);
+    }
+
+    /**
+     * Lee el documento bloqueando su fila hasta el final de la transacción.
+     * Una lectura con bloqueo ve siempre la última versión confirmada, también
+     * en REPEATABLE READ, así que un reintento no vuelve a leer la versión
+     * que ya falló.
+     */
+    private Document loadForUpdate(Long userId) {
+        return jdbcTemplate.query(SELECT_FOR_UPDATE_SQL, DOCUMENT_MAPPER, userId).stream().findFirst().orElse(null);
+    }
+
+    /**
+     * Lee el documento, aplica el cambio y lo reescribe comprobando la
+     * versión. Si el cambio devuelve {@code null} no se escribe nada.
+     *
+     * @throws ObjectOptimisticLockingFailureException si se agotan los reintentos
+     */
+    private <T> T mutate(Long userId, Function<Map<Long, Integer>, T> change) {
+        for (int attempt = 1; ; attempt++) {
+            Document document = loadForUpdate(userId);
+            Map<Long, Integer> quantities = document == null ? new LinkedHashMap<>() : document.quantities();
+            T result = change.apply(quantities);
+            if (result == null) {
+                return null;
+            }
+            CatalogSnapshot snapshot = productCatalog.snapshot();
+            quantities.keySet().removeIf(productId -> snapshot.get(productId) == null);
+            if (write(userId, document, quantities)) {
+                return result;
+            }
+            if (attempt >= MAX_ATTEMPTS) {
+                throw new ObjectOptimisticLockingFailureException(CartDocument.class, userId);
+            }
+        }
+    }
+
+    /**
+     * Escribe el documento si su versión no ha cambiado. Un carrito vacío
+     * elimina la fila.
+     *
+     * @return {@code false} si otra escritura se adelantó
+     */
+    private boolean write(Long userId, Document document, Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return document == null || jdbcTemplate.update(DELETE_VERSION_SQL, userId, document.version()) == 1;
+        }
+        byte[] lines = encode(quantities);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (document == null) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, userId, lines, now);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        }
+        return jdbcTemplate.update(UPDATE_SQL, lines, now, userId, document.version()) == 1;
+    }
+
+    private static byte[] encode(Map<Long, Integer> quantities) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(quantities.size() * 4);
+        quantities.forEach((productId, quantity) -> {
+            writeVarint(out, productId);
+            writeVarint(out, quantity);
+        });
+        if (out.size() > MAX_DOCUMENT_BYTES) {
+            throw new BadRequestException("El carrito tiene demasiados productos");
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<Long, Integer> decode(byte[] bytes) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            long productId = readVarint(buffer);
+            quantities.put(productId, (int) readVarint(buffer));
+        }
+        return quantities;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Documento leído: cantidades por producto y versión.
+     */
+    private record Document(Map<Long, Integer> quantities, long version) {
+    }
+}
@@ -0,0 +1,262 @@
+package com.frutolandia.cart;
+
+import com.frutolandia.dto.CartSweeperStats;
+import com.frutolandia.inventory.StockReservationEngine;
+import com.frutolandia.recommendation.RecommendationEngine;
+import com.frutolandia.service.CartSummaryCache;
+import com.frutolandia.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Barrido de carritos abandonados.
+ * <p>
+ * Cada carrito con líneas tiene un vencimiento programado en una
+ * {@link TimingWheel} a {@code frutolandia.cart.idle-ttl} de su última
+ * modificación. Modificar el carrito solo anota la fecha; cuando el
+ * vencimiento llega, si el carrito se ha tocado entretanto se reprograma
+ * por el tiempo restante, y si no pasa a una cola de carritos vencidos.
+ * </p>
+ * <p>
+ * Un hilo aparte vacía esa cola en lotes de como mucho
+ * {@code frutolandia.cart.sweep-batch-size} carritos cada
+ * {@code frutolandia.cart.sweep-interval}, cada lote en una única sentencia
+ * por lotes, para no mantener transacciones largas ni competir con el
+ * tráfico. El borrado solo afecta a líneas no modificadas desde la fecha de
+ * corte, de modo que un cambio simultáneo no se pierde.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class IdleCartSweeper {
+
+    private final CartStore cartStore;
+    private final CartSummaryCache cartSummaryCache;
+    private final StockReservationEngine stockReservationEngine;
+    private final RecommendationEngine recommendationEngine;
+    private final Duration idleTtl;
+    private final int batchSize;
+    private final Duration sweepInterval;
+
+    private final Map<Long, IdleCart> carts = new ConcurrentHashMap<>();
+    private final Queue<Long> expired = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final TimingWheel expirations = new TimingWheel("cart-expirations", Duration.ofSeconds(1), 512);
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong sweptCarts = new AtomicLong();
+    private final AtomicLong sweptRows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile LocalDateTime lastBatchAt;
+    private volatile long lastBatchMillis;
+
+    public IdleCartSweeper(
+            CartStore cartStore,
+            CartSummaryCache cartSummaryCache,
+            StockReservationEngine stockReservationEngine,
+            RecommendationEngine recommendationEngine,
+            @Value("${frutolandia.cart.idle-ttl:30d}") Duration idleTtl,
+            @Value("${frutolandia.cart.sweep-batch-size:200}") int batchSize,
+            @Value("${frutolandia.cart.sweep-interval:1s}") Duration sweepInterval) {
+        this.cartStore = cartStore;
+        this.cartSummaryCache = cartSummaryCache;
+        this.stockReservationEngine = stockReservationEngine;
+        this.recommendationEngine = recommendationEngine;
+        this.idleTtl = idleTtl;
+        this.batchSize = batchSize;
+        this.sweepInterval = sweepInterval;
+    }
+
+    /**
+     * Programa el vencimiento de los carritos existentes según la fecha de
+     * su última modificación y arranca el barrido. Las líneas sin fecha
+     * cuentan desde el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        long nanos = System.nanoTime();
+        cartStore.findLastActivity().forEach(activity -> {
+            long idle = activity.lastUpdated() == null
+                    ? 0
+                    : Math.max(Duration.between(activity.lastUpdated(), now).toNanos(), 0);
+            track(activity.userId(), nanos - idle);
+        });
+        long interval = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Anota una modificación del carrito de un usuario.
+     *
+     * @param userId ID del usuario
+     */
+    public void touch(Long userId) {
+        track(userId, System.nanoTime());
+    }
+
+    /**
+     * Deja de seguir un carrito que se ha vaciado.
+     *
+     * @param userId ID del usuario
+     */
+    public void forget(Long userId) {
+        IdleCart cart = carts.remove(userId);
+        if (cart != null && cart.expiry != null) {
+            cart.expiry.cancel();
+        }
+    }
+
+    /**
+     * Métricas del barrido.
+     */
+    public CartSweeperStats getStats() {
+        return new CartSweeperStats(idleTtl.toSeconds(), carts.size(), pending.get(), sweptCarts.get(),
+                sweptRows.get(), batches.get(), failedBatches.get(), lastBatchAt, lastBatchMillis);
+    }
+
+    private void track(Long userId, long touchedAt) {
+        carts.compute(userId, (id, cart) -> {
+            if (cart == null) {
+                cart = new IdleCart(touchedAt);
+                schedule(id, cart);
+            } else if (touchedAt - cart.lastTouched > 0) {
+                cart.lastTouched = touchedAt;
+            }
+            return cart;
+        });
+    }
+
+    /**
+     * Programa el vencimiento por el tiempo que le queda al carrito. Debe
+     * llamarse dentro de {@code carts.compute} para el mismo usuario.
+     */
+    private void schedule(Long userId, IdleCart cart) {
+        long remaining = idleTtl.toNanos() - (System.nanoTime() - cart.lastTouched);
+        cart.expiry = expirations.schedule(() -> onExpiry(userId, cart), Duration.ofNanos(Math.max(remaining, 0)));
+    }
+
+    /**
+     * Vencimiento de un carrito, en el hilo de la rueda: solo decide si se
+     * reprograma o se encola.
+     */
+    private void onExpiry(Long userId, IdleCart cart) {
+        carts.computeIfPresent(userId, (id, current) -> {
+            if (current == cart) {
+                if (isIdle(current)) {
+                    expired.add(id);
+                    pending.incrementAndGet();
+                } else {
+                    schedule(id, current);
+                }
+            }
+            return current;
+        });
+    }
+
+    private boolean isIdle(IdleCart cart) {
+        return System.nanoTime() - cart.lastTouched >= idleTtl.toNanos();
+    }
+
+    /**
+     * Elimina un lote de carritos vencidos.
+     */
+    void sweep() {
+        List<Long> batch = new ArrayList<>();
+        Long userId;
+        while (batch.size() < batchSize && (userId = expired.poll()) != null) {
+            pending.decrementAndGet();
+            IdleCart cart = carts.get(userId);
+            if (cart != null && isIdle(cart)) {
+                batch.add(userId);
+            } else if (cart != null) {
+                // Se ha modificado después de vencer
+                carts.computeIfPresent(userId, (id, current) -> {
+                    schedule(id, current);
+                    return current;
+                });
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        int rows;
+        try {
+            rows = cartStore.expire(batch, LocalDateTime.now().minus(idleTtl));
+        } catch (RuntimeException e) {
+            // El lote vuelve a la cola para el siguiente intento
+            failedBatches.incrementAndGet();
+            expired.addAll(batch);
+            pending.addAndGet(batch.size());
+            e.printStackTrace();
+            return;
+        }
+        List<Long> swept = new ArrayList<>();
+        for (Long id : batch) {
+            carts.computeIfPresent(id, (key, cart) -> {
+                if (isIdle(cart)) {
+                    swept.add(key);
+                    return null;
+                }
+                schedule(key, cart);
+                return cart;
+            });
+            cartSummaryCache.evict(id);
+        }
+        swept.forEach(stockReservationEngine::releaseAll);
+        swept.forEach(recommendationEngine::cartCleared);
+        sweptCarts.addAndGet(swept.size());
+        sweptRows.addAndGet(rows);
+        batches.incrementAndGet();
+        lastBatchAt = LocalDateTime.now();
+        lastBatchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    /**
+     * Detiene la rueda y el hilo de barrido al parar la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        expirations.close();
+    }
+
+    /**
+     * Carrito seguido por el barrido.
+     */
+    private static final class IdleCart {
+
+        private volatile long lastTouched;
+        private TimingWheel.Timeout expiry;
+
+        IdleCart(long lastTouched) {
+            this.lastTouched = lastTouched;
+        }
+    }
+}
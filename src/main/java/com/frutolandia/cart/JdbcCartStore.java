@@ -0,0 +1,104 @@
+package com.frutolandia.cart;
+
+import com.frutolandia.repository.CartItemRepository;
+import com.frutolandia.repository.CartItemRepositoryCustom.CartActivity;
+import com.frutolandia.repository.CartItemRepositoryCustom.CartItemQuantity;
+import com.frutolandia.repository.CartItemRepositoryCustom.CartLine;
+import com.frutolandia.repository.CartItemRepositoryCustom.UserCartLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacenamiento del carrito directamente en {@code cart_items}.
+ * <p>
+ * Cada operación se ejecuta en la transacción del servicio. Es el modo por
+ * defecto ({@code frutolandia.cart.store=jdbc}).
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "frutolandia.cart.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcCartStore implements CartStore {
+
+    private final CartItemRepository cartItemRepository;
+
+    @Override
+    public List<CartLine> findLines(Long userId) {
+        return cartItemRepository.findLinesByUserId(userId);
+    }
+
+    @Override
+    public CartItemQuantity addQuantity(Long userId, Long productId, int quantity) {
+        return cartItemRepository.addQuantity(userId, productId, quantity);
+    }
+
+    @Override
+    public CartItemQuantity updateQuantity(Long userId, Long productId, int quantity) {
+        return cartItemRepository.findByUserIdAndProductId(userId, productId)
+                .map(item -> {
+                    if (quantity <= 0) {
+                        cartItemRepository.delete(item);
+                    } else {
+                        item.setQuantity(quantity);
+                    }
+                    return new CartItemQuantity(item.getId(), Math.max(quantity, 0));
+                })
+                .orElse(null);
+    }
+
+    @Override
+    public void replace(Long userId, List<CartLine> current, Map<Long, Integer> target) {
+        Map<Long, CartLine> currentByProduct = new LinkedHashMap<>();
+        current.forEach(line -> currentByProduct.put(line.productId(), line));
+
+        Map<Long, Integer> inserts = new LinkedHashMap<>();
+        List<CartItemQuantity> updates = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        target.forEach((productId, quantity) -> {
+            CartLine line = currentByProduct.get(productId);
+            if (line == null) {
+                inserts.put(productId, quantity);
+            } else if (!line.quantity().equals(quantity)) {
+                updates.add(new CartItemQuantity(line.id(), quantity));
+            }
+        });
+        current.stream()
+                .filter(line -> !target.containsKey(line.productId()))
+                .forEach(line -> deletes.add(line.id()));
+
+        cartItemRepository.batchDelete(deletes);
+        cartItemRepository.batchUpdateQuantities(updates);
+        cartItemRepository.batchInsert(userId, inserts);
+    }
+
+    @Override
+    public void clear(Long userId) {
+        cartItemRepository.deleteByUserId(userId);
+    }
+
+    @Override
+    public int expire(List<Long> userIds, LocalDateTime cutoff) {
+        return cartItemRepository.deleteIdleLines(userIds, cutoff);
+    }
+
+    @Override
+    public List<CartActivity> findLastActivity() {
+        return cartItemRepository.findLastActivityByUser();
+    }
+
+    @Override
+    public List<UserCartLine> findAllLines() {
+        return cartItemRepository.findAllLines();
+    }
+}
@@ -0,0 +1,45 @@
+package com.frutolandia.catalog;
+
+import com.frutolandia.model.Product;
+
+import java.util.Collection;
+
+/**
+ * Estructura auxiliar en memoria derivada del catálogo de productos.
+ * <p>
+ * {@link ProductCatalog} notifica a todas las implementaciones registradas
+ * como beans cada vez que recarga o parchea su instantánea, de modo que los
+ * índices se mantienen de forma incremental sin consultar la base de datos.
+ * Los productos recibidos son copias desacopladas y no deben modificarse.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public interface CatalogIndex {
+
+    /**
+     * Reconstruye el índice completo a partir de todos los productos.
+     */
+    void rebuild(Collection<Product> products);
+
+    /**
+     * Añade o reemplaza un producto en el índice.
+     */
+    void upsert(Product product);
+
+    /**
+     * Elimina un producto del índice.
+     */
+    void remove(Long productId);
+
+    /**
+     * Actualiza productos que solo han cambiado su stock y su versión. Por
+     * defecto equivale a {@link #upsert} de cada uno; los índices que no
+     * dependen del stock pueden ignorarlo.
+     */
+    default void updateStock(Collection<Product> products) {
+        products.forEach(this::upsert);
+    }
+}
@@ -0,0 +1,281 @@
+package com.frutolandia.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de la respuesta HTTP del listado completo de productos.
+ * <p>
+ * Serializa el catálogo a JSON una sola vez por versión y guarda también sus
+ * variantes comprimidas con gzip y deflate, junto con un ETag fuerte calculado
+ * a partir del contenido. Las peticiones repetidas devuelven los bytes ya
+ * preparados sin volver a pasar por Jackson ni por el compresor.
+ * </p>
+ * <p>
+ * Los lotes del motor de reservas cambian el stock varias veces por segundo
+ * mientras hay carritos activos. Si desde la última codificación solo ha
+ * cambiado el stock ({@link CatalogSnapshot#getContentVersion()} no ha
+ * variado), la respuesta se reutiliza durante
+ * {@code frutolandia.catalog.stock-refresh}; el stock al momento se sirve
+ * en la ficha de cada producto y en el stream de cambios.
+ * </p>
+ * <p>
+ * Tras un cambio de versión solo un hilo vuelve a codificar el catálogo;
+ * las peticiones que llegan mientras tanto esperan a ese mismo resultado en
+ * lugar de serializar y comprimir cada una su propia copia.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class CatalogResponseCache {
+
+    /** Codificación gzip. */
+    public static final String GZIP = "gzip";
+
+    /** Codificación deflate (formato zlib). */
+    public static final String DEFLATE = "deflate";
+
+    private final ProductCatalog productCatalog;
+    private final ObjectMapper objectMapper;
+    private final long stockRefreshNanos;
+
+    private volatile EncodedCatalog cached;
+    private final AtomicReference<Encoding> encoding = new AtomicReference<>();
+
+    public CatalogResponseCache(
+            ProductCatalog productCatalog,
+            ObjectMapper objectMapper,
+            @Value("${frutolandia.catalog.stock-refresh:1s}") Duration stockRefresh) {
+        this.productCatalog = productCatalog;
+        this.objectMapper = objectMapper;
+        this.stockRefreshNanos = stockRefresh.toNanos();
+    }
+
+    /**
+     * Devuelve la respuesta codificada para la versión vigente del catálogo.
+     */
+    public EncodedCatalog current() {
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        EncodedCatalog entry = cached;
+        if (entry != null && (entry.getVersion() == snapshot.getVersion() || isFreshEnough(entry, snapshot))) {
+            return entry;
+        }
+        return encodeOnce(snapshot);
+    }
+
+    /**
+     * Codifica la instantánea o espera a la codificación en curso de la
+     * misma versión o de una posterior.
+     */
+    private EncodedCatalog encodeOnce(CatalogSnapshot snapshot) {
+        while (true) {
+            Encoding running = encoding.get();
+            if (running != null && running.version() >= snapshot.getVersion()) {
+                return await(running.result());
+            }
+            Encoding mine = new Encoding(snapshot.getVersion(), new CompletableFuture<>());
+            if (!encoding.compareAndSet(running, mine)) {
+                continue;
+            }
+            try {
+                EncodedCatalog entry = encode(snapshot);
+                publish(entry);
+                mine.result().complete(entry);
+                return entry;
+            } catch (RuntimeException e) {
+                encoding.compareAndSet(mine, null);
+                mine.result().completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private synchronized void publish(EncodedCatalog entry) {
+        if (cached == null || cached.getVersion() < entry.getVersion()) {
+            cached = entry;
+        }
+    }
+
+    private static EncodedCatalog await(CompletableFuture<EncodedCatalog> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private boolean isFreshEnough(EncodedCatalog entry, CatalogSnapshot snapshot) {
+        return entry.contentVersion == snapshot.getContentVersion()
+                && System.nanoTime() - entry.encodedAt < stockRefreshNanos;
+    }
+
+    private EncodedCatalog encode(CatalogSnapshot snapshot) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(snapshot.getProducts());
+            return new EncodedCatalog(
+                    snapshot.getVersion(),
+                    snapshot.getContentVersion(),
+                    contentHash(json),
+                    json,
+                    gzip(json),
+                    deflate(json)
+            );
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo", e);
+        }
+    }
+
+    private static String contentHash(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (OutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream out = new DeflaterOutputStream(buffer, deflater)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Codificación en curso o terminada de una versión del catálogo.
+     */
+    private record Encoding(long version, CompletableFuture<EncodedCatalog> result) {
+    }
+
+    /**
+     * Representaciones precalculadas de una versión del catálogo.
+     */
+    public static final class EncodedCatalog {
+
+        private final long version;
+        private final long contentVersion;
+        private final long encodedAt = System.nanoTime();
+        private final String hash;
+        private final byte[] identity;
+        private final byte[] gzip;
+        private final byte[] deflate;
+
+        EncodedCatalog(long version, long contentVersion, String hash, byte[] identity, byte[] gzip, byte[] deflate) {
+            this.version = version;
+            this.contentVersion = contentVersion;
+            this.hash = hash;
+            this.identity = identity;
+            this.gzip = gzip;
+            this.deflate = deflate;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Elige la codificación a partir de la cabecera Accept-Encoding.
+         *
+         * @param acceptEncoding valor de la cabecera (puede ser {@code null})
+         * @return {@link #GZIP}, {@link #DEFLATE} o {@code null} para la respuesta sin comprimir
+         */
+        public String negotiate(String acceptEncoding) {
+            if (acceptEncoding == null || acceptEncoding.isBlank()) {
+                return null;
+            }
+            boolean acceptsDeflate = false;
+            for (String part : acceptEncoding.split(",")) {
+                String[] tokens = part.trim().split(";");
+                String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+                if (isRefused(tokens)) {
+                    continue;
+                }
+                if (GZIP.equals(coding) || "*".equals(coding)) {
+                    return GZIP;
+                }
+                if (DEFLATE.equals(coding)) {
+                    acceptsDeflate = true;
+                }
+            }
+            return acceptsDeflate ? DEFLATE : null;
+        }
+
+        private static boolean isRefused(String[] tokens) {
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * ETag fuerte de la representación; distinto para cada codificación.
+         */
+        public String etag(String encoding) {
+            return "\"" + hash + (encoding == null ? "" : "-" + encoding) + "\"";
+        }
+
+        /**
+         * Cuerpo de la respuesta en la codificación indicada.
+         */
+        public byte[] body(String encoding) {
+            if (GZIP.equals(encoding)) {
+                return gzip;
+            }
+            if (DEFLATE.equals(encoding)) {
+                return deflate;
+            }
+            return identity;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.frutolandia.catalog;
+
+import com.frutolandia.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Instantánea inmutable del catálogo de productos.
+ * <p>
+ * Cada modificación del catálogo genera una instantánea nueva (copy-on-write)
+ * con un número de versión mayor, de modo que los lectores nunca observan
+ * estados intermedios y no necesitan sincronización.
+ * </p>
+ * <p>
+ * Además de la versión, cada instantánea guarda la versión de contenido: la
+ * del último cambio que no fue solo de stock. Las cachés que no dependen del
+ * stock, o que toleran servirlo con cierto retraso, se invalidan con ella.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final long contentVersion;
+    private final Map<Long, Product> productsById;
+    private final List<Product> products;
+
+    private CatalogSnapshot(long version, long contentVersion, TreeMap<Long, Product> productsById) {
+        this.version = version;
+        this.contentVersion = contentVersion;
+        this.productsById = Collections.unmodifiableMap(productsById);
+        this.products = Collections.unmodifiableList(new ArrayList<>(productsById.values()));
+    }
+
+    /**
+     * Crea una instantánea a partir de una colección de productos.
+     *
+     * @param version versión del catálogo
+     * @param products productos del catálogo (copias desacopladas de JPA)
+     * @return la nueva instantánea
+     */
+    public static CatalogSnapshot of(long version, Collection<Product> products) {
+        TreeMap<Long, Product> byId = new TreeMap<>();
+        for (Product product : products) {
+            byId.put(product.getId(), product);
+        }
+        return new CatalogSnapshot(version, version, byId);
+    }
+
+    /**
+     * Devuelve una nueva instantánea con el producto añadido o reemplazado.
+     */
+    public CatalogSnapshot with(long newVersion, Product product) {
+        TreeMap<Long, Product> byId = new TreeMap<>(productsById);
+        byId.put(product.getId(), product);
+        return new CatalogSnapshot(newVersion, newVersion, byId);
+    }
+
+    /**
+     * Devuelve una nueva instantánea con los productos añadidos o
+     * reemplazados.
+     */
+    public CatalogSnapshot with(long newVersion, Collection<Product> added) {
+        TreeMap<Long, Product> byId = new TreeMap<>(productsById);
+        for (Product product : added) {
+            byId.put(product.getId(), product);
+        }
+        return new CatalogSnapshot(newVersion, newVersion, byId);
+    }
+
+    /**
+     * Devuelve una nueva instantánea con los productos reemplazados, sin
+     * cambiar la versión de contenido: solo debe usarse cuando los productos
+     * difieren de los actuales en el stock y las versiones.
+     */
+    public CatalogSnapshot withStock(long newVersion, Collection<Product> changed) {
+        TreeMap<Long, Product> byId = new TreeMap<>(productsById);
+        for (Product product : changed) {
+            byId.put(product.getId(), product);
+        }
+        return new CatalogSnapshot(newVersion, contentVersion, byId);
+    }
+
+    /**
+     * Devuelve una nueva instantánea sin el producto indicado.
+     */
+    public CatalogSnapshot without(long newVersion, Long productId) {
+        TreeMap<Long, Product> byId = new TreeMap<>(productsById);
+        byId.remove(productId);
+        return new CatalogSnapshot(newVersion, newVersion, byId);
+    }
+
+    /**
+     * Versión del catálogo, estrictamente creciente con cada cambio.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Versión del último cambio que no fue solo de stock.
+     */
+    public long getContentVersion() {
+        return contentVersion;
+    }
+
+    /**
+     * Productos del catálogo ordenados por ID (lista no modificable).
+     */
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * Busca un producto por su ID.
+     *
+     * @return el producto o {@code null} si no existe
+     */
+    public Product get(Long id) {
+        return productsById.get(id);
+    }
+
+    /**
+     * Busca productos cuyo nombre contenga el texto indicado, sin distinguir
+     * mayúsculas/minúsculas (equivalente a {@code LOWER(name) LIKE '%x%'}).
+     */
+    public List<Product> searchByName(String name) {
+        String needle = name.toLowerCase(Locale.ROOT);
+        List<Product> result = new ArrayList<>();
+        for (Product product : products) {
+            if (product.getName() != null && product.getName().toLowerCase(Locale.ROOT).contains(needle)) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+}
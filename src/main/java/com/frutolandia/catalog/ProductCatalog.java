@@ -0,0 +1,196 @@
+package com.frutolandia.catalog;
+
+import com.frutolandia.event.ProductChangedEvent;
+import com.frutolandia.event.ProductStockChangedEvent;
+import com.frutolandia.event.ProductsImportedEvent;
+import com.frutolandia.model.Product;
+import com.frutolandia.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Catálogo de productos en memoria.
+ * <p>
+ * Mantiene una {@link CatalogSnapshot} inmutable que se carga una vez desde
+ * la base de datos y se parchea cuando se confirma una transacción que crea,
+ * actualiza o elimina un producto. Las lecturas del catálogo se resuelven
+ * sin acceder a la base de datos.
+ * </p>
+ * <p>
+ * Cada cambio se propaga también a los {@link CatalogIndex} registrados.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCatalog {
+
+    private final ProductRepository productRepository;
+    private final List<CatalogIndex> indexes;
+
+    private volatile CatalogSnapshot snapshot;
+
+    /**
+     * Devuelve la instantánea vigente del catálogo, cargándola si es necesario.
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Carga el catálogo al arrancar, una vez ejecutado data.sql.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Reconstruye la instantánea completa desde la base de datos.
+     *
+     * @return la nueva instantánea
+     */
+    public synchronized CatalogSnapshot reload() {
+        List<Product> products = productRepository.findAll().stream()
+                .map(ProductCatalog::detachedCopy)
+                .toList();
+        CatalogSnapshot rebuilt = CatalogSnapshot.of(nextVersion(), products);
+        snapshot = rebuilt;
+        indexes.forEach(index -> index.rebuild(rebuilt.getProducts()));
+        return rebuilt;
+    }
+
+    /**
+     * Aplica un cambio de producto a la instantánea tras el commit.
+     * <p>
+     * Los eventos pueden llegar desordenados (por ejemplo, el lote de stock
+     * publica productos leídos antes de una edición del administrador), así
+     * que se ignora un producto con una versión anterior a la que ya tiene
+     * la instantánea.
+     * </p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            reload();
+            return;
+        }
+        if (event.isDeleted()) {
+            snapshot = current.without(nextVersion(), event.getProductId());
+            indexes.forEach(index -> index.remove(event.getProductId()));
+        } else {
+            if (isStale(event.getProduct(), current.get(event.getProductId()))) {
+                return;
+            }
+            Product product = detachedCopy(event.getProduct());
+            snapshot = current.with(nextVersion(), product);
+            indexes.forEach(index -> index.upsert(product));
+        }
+    }
+
+    /**
+     * Añade tras el commit un lote de productos importados en una sola
+     * instantánea nueva.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsImported(ProductsImportedEvent event) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            reload();
+            return;
+        }
+        List<Product> products = event.getProducts().stream()
+                .map(ProductCatalog::detachedCopy)
+                .toList();
+        snapshot = current.with(nextVersion(), products);
+        for (Product product : products) {
+            indexes.forEach(index -> index.upsert(product));
+        }
+    }
+
+    /**
+     * Aplica tras el commit un lote de cambios de stock en una sola
+     * instantánea nueva.
+     * <p>
+     * Los productos que solo cambian el stock y las versiones conservan la
+     * versión de contenido de la instantánea y se notifican con
+     * {@link CatalogIndex#updateStock}. Un producto que trae otros cambios
+     * (una edición del administrador aún no notificada) se aplica como una
+     * actualización completa.
+     * </p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(ProductStockChangedEvent event) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            reload();
+            return;
+        }
+        List<Product> stockOnly = new ArrayList<>();
+        List<Product> edited = new ArrayList<>();
+        for (Product changed : event.getProducts()) {
+            Product known = current.get(changed.getId());
+            if (known == null || isStale(changed, known)) {
+                continue;
+            }
+            Product product = detachedCopy(changed);
+            (sameContent(product, known) ? stockOnly : edited).add(product);
+        }
+        if (!stockOnly.isEmpty()) {
+            current = current.withStock(nextVersion(), stockOnly);
+            snapshot = current;
+            indexes.forEach(index -> index.updateStock(stockOnly));
+        }
+        for (Product product : edited) {
+            snapshot = snapshot.with(nextVersion(), product);
+            indexes.forEach(index -> index.upsert(product));
+        }
+    }
+
+    private static boolean sameContent(Product a, Product b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getPrice(), b.getPrice())
+                && Objects.equals(a.getIngredients(), b.getIngredients())
+                && Objects.equals(a.getDescription(), b.getDescription());
+    }
+
+    private static boolean isStale(Product product, Product known) {
+        return known != null && product.getVersion() != null && known.getVersion() != null
+                && product.getVersion() < known.getVersion();
+    }
+
+    private long nextVersion() {
+        CatalogSnapshot current = snapshot;
+        return current == null ? 1 : current.getVersion() + 1;
+    }
+
+    /**
+     * Copia los datos de un producto para que la instantánea no comparta
+     * instancias gestionadas por el contexto de persistencia.
+     */
+    static Product detachedCopy(Product product) {
+        return new Product(
+                product.getId(),
+                product.getName(),
+                product.getPrice(),
+                product.getIngredients(),
+                product.getDescription(),
+                product.getStockQuantity(),
+                product.getVersion(),
+                product.getChangeVersion(),
+                product.getUpdatedAt()
+        );
+    }
+}
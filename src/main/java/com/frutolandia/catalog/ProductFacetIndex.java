@@ -0,0 +1,365 @@
+package com.frutolandia.catalog;
+
+import com.frutolandia.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Motor de filtrado por facetas basado en mapas de bits.
+ * <p>
+ * Cada producto recibe un ordinal denso (los ordinales liberados se
+ * reutilizan), de modo que un {@link BitSet} ocupa un bit por producto.
+ * Se mantiene un mapa de bits por ingrediente (codificado en diccionario a
+ * partir de la lista separada por comas de {@code ingredients}), uno por
+ * tramo de precio de un euro y otro para los productos con stock.
+ * Un filtro se resuelve con intersecciones de mapas de bits y los recuentos
+ * de cada faceta se calculan sobre el mismo resultado.
+ * </p>
+ * <p>
+ * No se usan mapas de bits comprimidos: como los ordinales son densos, cada
+ * mapa ocupa como mucho un bit por producto del catálogo (unos cientos de
+ * bytes con miles de productos) y las intersecciones recorren unas pocas
+ * palabras de 64 bits. La compresión por contenedores compensa con
+ * universos grandes y dispersos, que los ordinales evitan.
+ * </p>
+ * <p>
+ * Un ingrediente que deja de tener productos se elimina del diccionario y
+ * su código se reutiliza, para que el diccionario no crezca con los
+ * productos borrados o editados.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class ProductFacetIndex implements CatalogIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final List<Long> idByOrdinal = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    private final Map<String, Integer> ingredientCodes = new HashMap<>();
+    private final List<String> ingredientKeys = new ArrayList<>();
+    private final List<String> ingredientLabels = new ArrayList<>();
+    private final List<BitSet> ingredientBitmaps = new ArrayList<>();
+    private final Deque<Integer> freeIngredientCodes = new ArrayDeque<>();
+
+    private final TreeMap<Integer, BitSet> priceBuckets = new TreeMap<>();
+    private final BitSet inStock = new BitSet();
+
+    private double[] prices = new double[64];
+    private int[][] ingredientsByOrdinal = new int[64][];
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            ordinalById.clear();
+            idByOrdinal.clear();
+            freeOrdinals.clear();
+            live.clear();
+            ingredientCodes.clear();
+            ingredientKeys.clear();
+            ingredientLabels.clear();
+            ingredientBitmaps.clear();
+            freeIngredientCodes.clear();
+            priceBuckets.clear();
+            inStock.clear();
+            for (Product product : products) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            delete(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            delete(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filtra el catálogo y calcula los recuentos de cada faceta.
+     *
+     * @param ingredients ingredientes que deben estar todos presentes; cada uno
+     *                    coincide con las entradas del diccionario que lo contienen
+     *                    como palabra completa ("naranja" incluye "Zumo de naranja")
+     * @param minPrice precio mínimo inclusivo (opcional)
+     * @param maxPrice precio máximo inclusivo (opcional)
+     * @param stock {@code true} solo con stock, {@code false} solo sin stock, {@code null} ambos
+     * @return los IDs coincidentes, en orden de ID, y los recuentos por faceta
+     */
+    public FacetResult filter(List<String> ingredients, Double minPrice, Double maxPrice, Boolean stock) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) live.clone();
+            if (ingredients != null) {
+                for (String ingredient : ingredients) {
+                    result.and(ingredientMask(TextNormalizer.fold(ingredient)));
+                }
+            }
+            if (minPrice != null || maxPrice != null) {
+                result.and(priceMask(minPrice, maxPrice));
+            }
+            if (stock != null) {
+                if (stock) {
+                    result.and(inStock);
+                } else {
+                    result.andNot(inStock);
+                }
+            }
+            return new FacetResult(ids(result), ingredientCounts(result), priceBandCounts(result),
+                    intersectionCount(inStock, result));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Product product) {
+        int ordinal = freeOrdinals.isEmpty() ? idByOrdinal.size() : freeOrdinals.pop();
+        if (ordinal == idByOrdinal.size()) {
+            idByOrdinal.add(product.getId());
+        } else {
+            idByOrdinal.set(ordinal, product.getId());
+        }
+        ensureCapacity(ordinal);
+        ordinalById.put(product.getId(), ordinal);
+        live.set(ordinal);
+
+        double price = product.getPrice() != null ? product.getPrice() : 0;
+        prices[ordinal] = price;
+        priceBuckets.computeIfAbsent(bucketOf(price), b -> new BitSet()).set(ordinal);
+
+        if (product.getStockQuantity() != null && product.getStockQuantity() > 0) {
+            inStock.set(ordinal);
+        }
+
+        List<Integer> codes = new ArrayList<>();
+        if (product.getIngredients() != null) {
+            for (String raw : product.getIngredients().split(",")) {
+                String label = raw.trim();
+                String key = TextNormalizer.fold(label);
+                if (key.isEmpty()) {
+                    continue;
+                }
+                int code = ingredientCodes.computeIfAbsent(key, k -> newIngredient(k, label));
+                BitSet bitmap = ingredientBitmaps.get(code);
+                if (!bitmap.get(ordinal)) {
+                    bitmap.set(ordinal);
+                    codes.add(code);
+                }
+            }
+        }
+        ingredientsByOrdinal[ordinal] = codes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void delete(Long productId) {
+        Integer ordinal = ordinalById.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        inStock.clear(ordinal);
+        BitSet bucket = priceBuckets.get(bucketOf(prices[ordinal]));
+        if (bucket != null) {
+            bucket.clear(ordinal);
+        }
+        for (int code : ingredientsByOrdinal[ordinal]) {
+            BitSet bitmap = ingredientBitmaps.get(code);
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                releaseIngredient(code);
+            }
+        }
+        ingredientsByOrdinal[ordinal] = null;
+        idByOrdinal.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+    }
+
+    private int newIngredient(String key, String label) {
+        if (freeIngredientCodes.isEmpty()) {
+            ingredientKeys.add(key);
+            ingredientLabels.add(label);
+            ingredientBitmaps.add(new BitSet());
+            return ingredientKeys.size() - 1;
+        }
+        int code = freeIngredientCodes.pop();
+        ingredientKeys.set(code, key);
+        ingredientLabels.set(code, label);
+        ingredientBitmaps.set(code, new BitSet());
+        return code;
+    }
+
+    private void releaseIngredient(int code) {
+        ingredientCodes.remove(ingredientKeys.get(code));
+        ingredientKeys.set(code, null);
+        ingredientLabels.set(code, null);
+        ingredientBitmaps.set(code, null);
+        freeIngredientCodes.push(code);
+    }
+
+    private void ensureCapacity(int ordinal) {
+        if (ordinal >= prices.length) {
+            int capacity = Math.max(ordinal + 1, prices.length * 2);
+            prices = Arrays.copyOf(prices, capacity);
+            ingredientsByOrdinal = Arrays.copyOf(ingredientsByOrdinal, capacity);
+        }
+    }
+
+    private BitSet ingredientMask(String key) {
+        BitSet mask = new BitSet();
+        if (key.isEmpty()) {
+            return mask;
+        }
+        Integer exact = ingredientCodes.get(key);
+        if (exact != null) {
+            mask.or(ingredientBitmaps.get(exact));
+        }
+        String word = " " + key + " ";
+        for (int code = 0; code < ingredientKeys.size(); code++) {
+            String other = ingredientKeys.get(code);
+            if (other != null && !other.equals(key) && (" " + other + " ").contains(word)) {
+                mask.or(ingredientBitmaps.get(code));
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Une los tramos de precio del rango; solo los tramos de los extremos
+     * se comprueban producto a producto.
+     */
+    private BitSet priceMask(Double minPrice, Double maxPrice) {
+        double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+        BitSet mask = new BitSet();
+        if (min > max || priceBuckets.isEmpty()) {
+            return mask;
+        }
+        int fromBucket = minPrice != null ? bucketOf(min) : priceBuckets.firstKey();
+        int toBucket = maxPrice != null ? bucketOf(max) : priceBuckets.lastKey();
+        for (Map.Entry<Integer, BitSet> bucket : priceBuckets.subMap(fromBucket, true, toBucket, true).entrySet()) {
+            BitSet bits = bucket.getValue();
+            if (bucket.getKey() == fromBucket || bucket.getKey() == toBucket) {
+                for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                    if (prices[i] >= min && prices[i] <= max) {
+                        mask.set(i);
+                    }
+                }
+            } else {
+                mask.or(bits);
+            }
+        }
+        return mask;
+    }
+
+    private List<Long> ids(BitSet result) {
+        List<Long> ids = new ArrayList<>(result.cardinality());
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            ids.add(idByOrdinal.get(i));
+        }
+        ids.sort(Long::compare);
+        return ids;
+    }
+
+    private Map<String, Integer> ingredientCounts(BitSet result) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int code = 0; code < ingredientBitmaps.size(); code++) {
+            BitSet bitmap = ingredientBitmaps.get(code);
+            int count = bitmap != null ? intersectionCount(bitmap, result) : 0;
+            if (count > 0) {
+                counts.merge(ingredientLabels.get(code), count, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> priceBandCounts(BitSet result) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, BitSet> bucket : priceBuckets.entrySet()) {
+            int count = intersectionCount(bucket.getValue(), result);
+            if (count > 0) {
+                counts.put(bucket.getKey() + "-" + (bucket.getKey() + 1), count);
+            }
+        }
+        return counts;
+    }
+
+    private static int intersectionCount(BitSet bitmap, BitSet result) {
+        BitSet intersection = (BitSet) bitmap.clone();
+        intersection.and(result);
+        return intersection.cardinality();
+    }
+
+    private static int bucketOf(double price) {
+        return (int) Math.floor(price);
+    }
+
+    /**
+     * Resultado de un filtrado: IDs coincidentes y recuentos por faceta.
+     */
+    public static final class FacetResult {
+
+        private final List<Long> productIds;
+        private final Map<String, Integer> ingredientCounts;
+        private final Map<String, Integer> priceBandCounts;
+        private final int inStockCount;
+
+        FacetResult(List<Long> productIds, Map<String, Integer> ingredientCounts,
+                    Map<String, Integer> priceBandCounts, int inStockCount) {
+            this.productIds = productIds;
+            this.ingredientCounts = ingredientCounts;
+            this.priceBandCounts = priceBandCounts;
+            this.inStockCount = inStockCount;
+        }
+
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+
+        public Map<String, Integer> getIngredientCounts() {
+            return ingredientCounts;
+        }
+
+        public Map<String, Integer> getPriceBandCounts() {
+            return priceBandCounts;
+        }
+
+        public int getInStockCount() {
+            return inStockCount;
+        }
+    }
+}
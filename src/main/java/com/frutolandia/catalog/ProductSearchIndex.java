@@ -0,0 +1,195 @@
+package com.frutolandia.catalog;
+
+import com.frutolandia.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas para la búsqueda de productos.
+ * <p>
+ * Indexa el nombre, los ingredientes y la descripción normalizados con
+ * {@link TextNormalizer}, de modo que la búsqueda no distingue mayúsculas ni
+ * tildes ("limon" encuentra "Limón"). Cada palabra se rellena con espacios
+ * antes de trocearla, así que los trigramas iniciales permiten buscar por
+ * prefijo y tolerar pequeñas erratas.
+ * </p>
+ * <p>
+ * La puntuación suma el peso del campo en el que aparece cada trigrama de
+ * la consulta (nombre &gt; ingredientes &gt; descripción); solo se devuelven
+ * productos que contienen al menos {@link #MIN_COVERAGE} de los trigramas.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class ProductSearchIndex implements CatalogIndex {
+
+    /** Fracción mínima de trigramas de la consulta que debe contener un resultado. */
+    static final double MIN_COVERAGE = 0.75;
+
+    private static final int NAME_WEIGHT = 4;
+    private static final int INGREDIENTS_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Trigrama -> (ID de producto -> peso del campo de mayor peso que lo contiene). */
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    /** ID de producto -> trigramas indexados, para poder retirarlo del índice. */
+    private final Map<Long, Set<String>> gramsByProduct = new HashMap<>();
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            gramsByProduct.clear();
+            for (Product product : products) {
+                index(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            unindex(product.getId());
+            index(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * El índice solo contiene texto: los cambios de stock no le afectan.
+     */
+    @Override
+    public void updateStock(Collection<Product> products) {
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            unindex(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca productos que coincidan con la consulta.
+     *
+     * @param query texto libre
+     * @param limit número máximo de resultados
+     * @return IDs de producto ordenados por relevancia
+     */
+    public List<Long> search(String query, int limit) {
+        Set<String> queryGrams = queryGrams(query);
+        if (queryGrams.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, int[]> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String gram : queryGrams) {
+                Map<Long, Integer> products = postings.get(gram);
+                if (products == null) {
+                    continue;
+                }
+                for (Map.Entry<Long, Integer> posting : products.entrySet()) {
+                    int[] score = scores.computeIfAbsent(posting.getKey(), id -> new int[2]);
+                    score[0]++;
+                    score[1] += posting.getValue();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int minHits = (int) Math.ceil(queryGrams.size() * MIN_COVERAGE);
+        List<Map.Entry<Long, int[]>> matches = new ArrayList<>();
+        for (Map.Entry<Long, int[]> entry : scores.entrySet()) {
+            if (entry.getValue()[0] >= minHits) {
+                matches.add(entry);
+            }
+        }
+        matches.sort((a, b) -> {
+            int byScore = Integer.compare(b.getValue()[1], a.getValue()[1]);
+            return byScore != 0 ? byScore : Long.compare(a.getKey(), b.getKey());
+        });
+
+        List<Long> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(matches.get(i).getKey());
+        }
+        return result;
+    }
+
+    private void index(Product product) {
+        Map<String, Integer> grams = new HashMap<>();
+        addGrams(grams, product.getName(), NAME_WEIGHT);
+        addGrams(grams, product.getIngredients(), INGREDIENTS_WEIGHT);
+        addGrams(grams, product.getDescription(), DESCRIPTION_WEIGHT);
+        for (Map.Entry<String, Integer> gram : grams.entrySet()) {
+            postings.computeIfAbsent(gram.getKey(), g -> new HashMap<>()).put(product.getId(), gram.getValue());
+        }
+        gramsByProduct.put(product.getId(), grams.keySet());
+    }
+
+    private void unindex(Long productId) {
+        Set<String> grams = gramsByProduct.remove(productId);
+        if (grams == null) {
+            return;
+        }
+        for (String gram : grams) {
+            Map<Long, Integer> products = postings.get(gram);
+            if (products != null) {
+                products.remove(productId);
+                if (products.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static void addGrams(Map<String, Integer> grams, String text, int weight) {
+        for (String token : TextNormalizer.tokens(text)) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.merge(padded.substring(i, i + 3), weight, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Trigramas de la consulta; sin relleno final para que cada palabra
+     * funcione también como prefijo.
+     */
+    private static Set<String> queryGrams(String query) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String token : TextNormalizer.tokens(query)) {
+            String padded = "  " + token;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+}
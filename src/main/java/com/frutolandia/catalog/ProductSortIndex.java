@@ -0,0 +1,442 @@
+package com.frutolandia.catalog;
+
+import com.frutolandia.exception.BadRequestException;
+import com.frutolandia.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índices ordenados en memoria para listar el catálogo por ID, precio, nombre o stock.
+ * <p>
+ * Cada índice es un par de arrays paralelos (clave, ID) ordenados por clave y,
+ * en caso de empate, por ID: precio en céntimos ({@code long}), nombre como
+ * {@link CollationKey} precalculada con un {@link Collator} español y stock
+ * ({@code int}). Las altas y bajas se insertan por búsqueda binaria en copias
+ * nuevas de los arrays, que se publican de forma atómica, así que las
+ * lecturas no necesitan bloqueo ni vuelven a ordenar nada. Los rangos de
+ * precio se recortan con dos búsquedas binarias.
+ * </p>
+ * <p>
+ * Los listados completos y los paginados por cursor usan los mismos
+ * arrays: una página empieza justo después de la posición (clave, ID) del
+ * último producto de la anterior, localizada también por búsqueda binaria.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class ProductSortIndex implements CatalogIndex {
+
+    /**
+     * Campos por los que se puede ordenar el catálogo.
+     */
+    public enum Field {
+        /** Por ID */
+        ID,
+        /** Por precio */
+        PRICE,
+        /** Por nombre, con la intercalación del español */
+        NAME,
+        /** Por cantidad en stock */
+        STOCK;
+
+        /**
+         * Convierte el parámetro de la petición en un campo de ordenación.
+         *
+         * @param value valor del parámetro {@code sort} (puede ser {@code null})
+         * @return el campo, {@link #ID} por defecto
+         * @throws BadRequestException si el valor no es válido
+         */
+        public static Field fromParameter(String value) {
+            if (value == null || value.isBlank()) {
+                return ID;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Ordenación no válida: " + value);
+            }
+        }
+    }
+
+    private final Collator collator;
+
+    /** Valores indexados de cada producto, para localizarlo al actualizarlo o borrarlo. */
+    private final Map<Long, Keys> keysById = new HashMap<>();
+
+    private volatile Sorted sorted = Sorted.EMPTY;
+
+    public ProductSortIndex() {
+        this.collator = Collator.getInstance(Locale.forLanguageTag("es-ES"));
+        this.collator.setStrength(Collator.SECONDARY);
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Product> products) {
+        keysById.clear();
+        List<Keys> all = new ArrayList<>(products.size());
+        for (Product product : products) {
+            Keys keys = keysOf(product);
+            keysById.put(product.getId(), keys);
+            all.add(keys);
+        }
+        sorted = Sorted.of(all);
+    }
+
+    @Override
+    public synchronized void upsert(Product product) {
+        Keys keys = keysOf(product);
+        Keys previous = keysById.put(product.getId(), keys);
+        Sorted current = previous != null ? sorted.without(previous) : sorted;
+        sorted = current.with(keys);
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        Keys previous = keysById.remove(productId);
+        if (previous != null) {
+            sorted = sorted.without(previous);
+        }
+    }
+
+    /**
+     * Devuelve los IDs ordenados por el campo indicado, opcionalmente
+     * limitados a un rango de precio (ambos extremos inclusivos).
+     *
+     * @param field campo de ordenación
+     * @param descending {@code true} para orden descendente
+     * @param minPrice precio mínimo (opcional)
+     * @param maxPrice precio máximo (opcional)
+     * @return IDs de producto en el orden pedido
+     */
+    public List<Long> sortedIds(Field field, boolean descending, Double minPrice, Double maxPrice) {
+        return page(field, descending, minPrice, maxPrice, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Devuelve una página de IDs ordenados por el campo indicado.
+     * <p>
+     * La página empieza justo después de la posición de {@code after} en la
+     * ordenación pedida, aunque ese producto haya cambiado o ya no exista.
+     * Solo se usan el ID de {@code after} y el valor del campo de ordenación.
+     * </p>
+     *
+     * @param field campo de ordenación
+     * @param descending {@code true} para orden descendente
+     * @param minPrice precio mínimo (opcional)
+     * @param maxPrice precio máximo (opcional)
+     * @param after último producto de la página anterior (opcional)
+     * @param limit número máximo de IDs
+     * @return IDs de producto en el orden pedido
+     */
+    public List<Long> page(Field field, boolean descending, Double minPrice, Double maxPrice,
+                           Product after, int limit) {
+        Sorted view = sorted;
+        long minCents = minPrice != null ? toCents(minPrice) : Long.MIN_VALUE;
+        long maxCents = maxPrice != null ? toCents(maxPrice) : Long.MAX_VALUE;
+        boolean ranged = minPrice != null || maxPrice != null;
+
+        long[] ids;
+        int from = 0;
+        int to;
+        if (field == Field.PRICE) {
+            ids = view.priceIds;
+            from = lowerBound(view.priceCents, minCents);
+            to = Math.max(from, upperBound(view.priceCents, maxCents));
+            ranged = false;
+        } else {
+            ids = switch (field) {
+                case ID -> view.ids;
+                case NAME -> view.nameIds;
+                default -> view.stockIds;
+            };
+            to = ids.length;
+        }
+        if (after != null) {
+            // Los IDs son enteros: lo estrictamente mayor que (clave, id) es
+            // lo mayor o igual que (clave, id + 1)
+            Keys keys = keysOf(after);
+            if (descending) {
+                to = Math.min(to, view.position(field, keys, keys.id));
+            } else {
+                from = Math.max(from, view.position(field, keys, keys.id + 1));
+            }
+        }
+
+        List<Long> result = new ArrayList<>(Math.min(Math.max(to - from, 0), limit));
+        for (int i = 0; i < to - from && result.size() < limit; i++) {
+            long id = ids[descending ? to - 1 - i : from + i];
+            if (ranged) {
+                long cents = view.centsOf(id);
+                if (cents < minCents || cents > maxCents) {
+                    continue;
+                }
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    private Keys keysOf(Product product) {
+        long id = product.getId() != null ? product.getId() : 0;
+        long cents = product.getPrice() != null ? toCents(product.getPrice()) : 0;
+        String name = product.getName() != null ? product.getName() : "";
+        int stock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+        return new Keys(id, cents, collator.getCollationKey(name), stock);
+    }
+
+    private static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    /** Primera posición cuya clave es mayor o igual que {@code key}. */
+    private static int lowerBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Primera posición cuya clave es estrictamente mayor que {@code key}. */
+    private static int upperBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private record Keys(long id, long priceCents, CollationKey nameKey, int stock) {
+    }
+
+    /**
+     * Conjunto inmutable de arrays ordenados.
+     */
+    private static final class Sorted {
+
+        private static final Sorted EMPTY = new Sorted(new long[0], new long[0], new long[0],
+                new CollationKey[0], new long[0], new int[0], new long[0], Map.of());
+
+        private final long[] ids;
+        private final long[] priceCents;
+        private final long[] priceIds;
+        private final CollationKey[] nameKeys;
+        private final long[] nameIds;
+        private final int[] stocks;
+        private final long[] stockIds;
+        private final Map<Long, Long> centsById;
+
+        private Sorted(long[] ids, long[] priceCents, long[] priceIds, CollationKey[] nameKeys, long[] nameIds,
+                       int[] stocks, long[] stockIds, Map<Long, Long> centsById) {
+            this.ids = ids;
+            this.priceCents = priceCents;
+            this.priceIds = priceIds;
+            this.nameKeys = nameKeys;
+            this.nameIds = nameIds;
+            this.stocks = stocks;
+            this.stockIds = stockIds;
+            this.centsById = centsById;
+        }
+
+        private static Sorted of(List<Keys> all) {
+            if (all.isEmpty()) {
+                return EMPTY;
+            }
+            List<Keys> byPrice = new ArrayList<>(all);
+            byPrice.sort((a, b) -> compareKeys(a.priceCents, a.id, b.priceCents, b.id));
+            List<Keys> byName = new ArrayList<>(all);
+            byName.sort((a, b) -> compareName(a.nameKey, a.id, b.nameKey, b.id));
+            List<Keys> byStock = new ArrayList<>(all);
+            byStock.sort((a, b) -> compareKeys(a.stock, a.id, b.stock, b.id));
+
+            int n = all.size();
+            long[] ids = all.stream().mapToLong(Keys::id).sorted().toArray();
+            long[] priceCents = new long[n];
+            long[] priceIds = new long[n];
+            CollationKey[] nameKeys = new CollationKey[n];
+            long[] nameIds = new long[n];
+            int[] stocks = new int[n];
+            long[] stockIds = new long[n];
+            Map<Long, Long> centsById = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                priceCents[i] = byPrice.get(i).priceCents;
+                priceIds[i] = byPrice.get(i).id;
+                nameKeys[i] = byName.get(i).nameKey;
+                nameIds[i] = byName.get(i).id;
+                stocks[i] = byStock.get(i).stock;
+                stockIds[i] = byStock.get(i).id;
+                centsById.put(byPrice.get(i).id, byPrice.get(i).priceCents);
+            }
+            return new Sorted(ids, priceCents, priceIds, nameKeys, nameIds, stocks, stockIds, centsById);
+        }
+
+        private Sorted with(Keys keys) {
+            int i = lowerBound(ids, keys.id);
+            int p = insertionPoint(priceCents, priceIds, keys.priceCents, keys.id);
+            int s = insertionPoint(stocks, stockIds, keys.stock, keys.id);
+            int c = insertionPoint(nameKeys, nameIds, keys.nameKey, keys.id);
+            Map<Long, Long> cents = new HashMap<>(centsById);
+            cents.put(keys.id, keys.priceCents);
+            return new Sorted(
+                    insert(ids, i, keys.id),
+                    insert(priceCents, p, keys.priceCents), insert(priceIds, p, keys.id),
+                    insert(nameKeys, c, keys.nameKey), insert(nameIds, c, keys.id),
+                    insert(stocks, s, keys.stock), insert(stockIds, s, keys.id),
+                    cents);
+        }
+
+        private Sorted without(Keys keys) {
+            int i = lowerBound(ids, keys.id);
+            int p = insertionPoint(priceCents, priceIds, keys.priceCents, keys.id);
+            int s = insertionPoint(stocks, stockIds, keys.stock, keys.id);
+            int c = insertionPoint(nameKeys, nameIds, keys.nameKey, keys.id);
+            Map<Long, Long> cents = new HashMap<>(centsById);
+            cents.remove(keys.id);
+            return new Sorted(
+                    delete(ids, i),
+                    delete(priceCents, p), delete(priceIds, p),
+                    delete(nameKeys, c), delete(nameIds, c),
+                    delete(stocks, s), delete(stockIds, s),
+                    cents);
+        }
+
+        /**
+         * Primera posición de la ordenación por {@code field} que no es menor
+         * que la clave de {@code keys} con el ID {@code id}.
+         */
+        private int position(Field field, Keys keys, long id) {
+            return switch (field) {
+                case ID -> lowerBound(ids, id);
+                case PRICE -> insertionPoint(priceCents, priceIds, keys.priceCents, id);
+                case NAME -> insertionPoint(nameKeys, nameIds, keys.nameKey, id);
+                case STOCK -> insertionPoint(stocks, stockIds, keys.stock, id);
+            };
+        }
+
+        private long centsOf(long id) {
+            Long cents = centsById.get(id);
+            return cents != null ? cents : 0;
+        }
+
+        private static int compareKeys(long keyA, long idA, long keyB, long idB) {
+            int byKey = Long.compare(keyA, keyB);
+            return byKey != 0 ? byKey : Long.compare(idA, idB);
+        }
+
+        private static int compareName(CollationKey keyA, long idA, CollationKey keyB, long idB) {
+            int byKey = keyA.compareTo(keyB);
+            return byKey != 0 ? byKey : Long.compare(idA, idB);
+        }
+
+        /** Posición de (clave, ID): la del elemento si existe o donde debe insertarse. */
+        private static int insertionPoint(long[] keys, long[] ids, long key, long id) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareKeys(keys[mid], ids[mid], key, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int insertionPoint(int[] keys, long[] ids, int key, long id) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareKeys(keys[mid], ids[mid], key, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int insertionPoint(CollationKey[] keys, long[] ids, CollationKey key, long id) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareName(keys[mid], ids[mid], key, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static long[] insert(long[] array, int index, long value) {
+            long[] copy = new long[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            copy[index] = value;
+            System.arraycopy(array, index, copy, index + 1, array.length - index);
+            return copy;
+        }
+
+        private static int[] insert(int[] array, int index, int value) {
+            int[] copy = new int[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            copy[index] = value;
+            System.arraycopy(array, index, copy, index + 1, array.length - index);
+            return copy;
+        }
+
+        private static CollationKey[] insert(CollationKey[] array, int index, CollationKey value) {
+            CollationKey[] copy = new CollationKey[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            copy[index] = value;
+            System.arraycopy(array, index, copy, index + 1, array.length - index);
+            return copy;
+        }
+
+        private static long[] delete(long[] array, int index) {
+            long[] copy = new long[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 1, copy, index, array.length - index - 1);
+            return copy;
+        }
+
+        private static int[] delete(int[] array, int index) {
+            int[] copy = new int[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 1, copy, index, array.length - index - 1);
+            return copy;
+        }
+
+        private static CollationKey[] delete(CollationKey[] array, int index) {
+            CollationKey[] copy = Arrays.copyOf(array, array.length - 1);
+            System.arraycopy(array, index + 1, copy, index, array.length - index - 1);
+            return copy;
+        }
+    }
+}
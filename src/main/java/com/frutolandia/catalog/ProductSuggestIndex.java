@@ -0,0 +1,214 @@
+package com.frutolandia.catalog;
+
+import com.frutolandia.dto.ProductSuggestion;
+import com.frutolandia.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice de autocompletado basado en un trie compacto (árbol radix).
+ * <p>
+ * Las claves son el nombre normalizado de cada producto y cada uno de sus
+ * sufijos por palabra, de modo que "nar" sugiere "Zumo de Naranja". Cada
+ * nodo guarda precalculados los {@link #TOP_K} mejores productos de su
+ * subárbol (más stock primero), así que una sugerencia cuesta O(longitud
+ * del prefijo). El trie es inmutable: cada cambio del catálogo construye uno
+ * nuevo y lo publica de forma atómica.
+ * </p>
+ * <p>
+ * Los cambios que solo afectan al stock llegan continuamente mientras hay
+ * carritos activos, así que no reconstruyen el trie en cuanto llegan: el
+ * orden por stock se refresca como mucho una vez por minuto, o con el
+ * siguiente cambio de otro tipo.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class ProductSuggestIndex implements CatalogIndex {
+
+    /** Número de sugerencias precalculadas por nodo. */
+    public static final int TOP_K = 10;
+
+    /** Antigüedad mínima del trie para reconstruirlo por cambios de stock. */
+    static final long STOCK_REFRESH_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final Comparator<Product> RANKING = Comparator
+            .comparing((Product p) -> p.getStockQuantity() != null ? p.getStockQuantity() : 0, Comparator.reverseOrder())
+            .thenComparing(Product::getName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Product::getId);
+
+    private final Map<Long, Product> products = new HashMap<>();
+
+    private volatile Node root = Node.EMPTY;
+    private long builtAt = System.nanoTime();
+
+    @Override
+    public synchronized void rebuild(Collection<Product> all) {
+        products.clear();
+        for (Product product : all) {
+            products.put(product.getId(), product);
+        }
+        publish();
+    }
+
+    @Override
+    public synchronized void upsert(Product product) {
+        products.put(product.getId(), product);
+        publish();
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        if (products.remove(productId) != null) {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized void updateStock(Collection<Product> changed) {
+        for (Product product : changed) {
+            products.put(product.getId(), product);
+        }
+        if (System.nanoTime() - builtAt >= STOCK_REFRESH_NANOS) {
+            publish();
+        }
+    }
+
+    private void publish() {
+        root = build(products.values());
+        builtAt = System.nanoTime();
+    }
+
+    /**
+     * Devuelve las sugerencias para un prefijo.
+     *
+     * @param prefix texto escrito por el usuario
+     * @param limit número máximo de sugerencias (como mucho {@link #TOP_K})
+     * @return productos sugeridos, con más stock primero
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String key = TextNormalizer.fold(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                return List.of();
+            }
+            for (int j = 0; j < child.label.length; j++, i++) {
+                if (i == key.length()) {
+                    break;
+                }
+                if (child.label[j] != key.charAt(i)) {
+                    return List.of();
+                }
+            }
+            node = child;
+        }
+        return List.of(Arrays.copyOf(node.top, Math.min(limit, node.top.length)));
+    }
+
+    private static Node build(Collection<Product> products) {
+        BuildNode trie = new BuildNode();
+        for (Product product : products) {
+            String[] tokens = TextNormalizer.tokens(product.getName());
+            for (int start = 0; start < tokens.length; start++) {
+                String key = String.join(" ", Arrays.copyOfRange(tokens, start, tokens.length));
+                BuildNode node = trie;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.children.computeIfAbsent(key.charAt(i), c -> new BuildNode());
+                }
+                node.terminals.add(product);
+            }
+        }
+        return compress(new char[0], trie, false);
+    }
+
+    /**
+     * Convierte el trie de construcción en nodos radix: las cadenas de
+     * nodos con un único hijo y sin productos se funden en una etiqueta.
+     * La raíz conserva la etiqueta vacía, porque {@link #suggest} empieza a
+     * comparar por sus hijos.
+     */
+    private static Node compress(char[] label, BuildNode node, boolean mergePath) {
+        StringBuilder path = new StringBuilder().append(label);
+        BuildNode current = node;
+        while (mergePath && current.terminals.isEmpty() && current.children.size() == 1) {
+            Map.Entry<Character, BuildNode> only = current.children.firstEntry();
+            path.append(only.getKey());
+            current = only.getValue();
+        }
+
+        Node[] children = new Node[current.children.size()];
+        int index = 0;
+        for (Map.Entry<Character, BuildNode> entry : current.children.entrySet()) {
+            children[index++] = compress(new char[]{entry.getKey()}, entry.getValue(), true);
+        }
+
+        Map<Long, Product> candidates = new LinkedHashMap<>();
+        for (Product product : current.terminals) {
+            candidates.put(product.getId(), product);
+        }
+        for (Node child : children) {
+            for (Product product : child.ranked) {
+                candidates.putIfAbsent(product.getId(), product);
+            }
+        }
+        List<Product> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(RANKING);
+        if (ranked.size() > TOP_K) {
+            ranked = new ArrayList<>(ranked.subList(0, TOP_K));
+        }
+        return new Node(path.toString().toCharArray(), children, ranked);
+    }
+
+    private static final class BuildNode {
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private final List<Product> terminals = new ArrayList<>(1);
+    }
+
+    private static final class Node {
+
+        private static final Node EMPTY = new Node(new char[0], new Node[0], List.of());
+
+        private final char[] label;
+        private final char[] firstChars;
+        private final Node[] children;
+        private final List<Product> ranked;
+        private final ProductSuggestion[] top;
+
+        private Node(char[] label, Node[] children, List<Product> ranked) {
+            this.label = label;
+            this.children = children;
+            this.firstChars = new char[children.length];
+            for (int i = 0; i < children.length; i++) {
+                firstChars[i] = children[i].label[0];
+            }
+            this.ranked = ranked;
+            this.top = ranked.stream()
+                    .map(p -> new ProductSuggestion(p.getId(), p.getName()))
+                    .toArray(ProductSuggestion[]::new);
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(firstChars, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.frutolandia.catalog;
+
+import com.frutolandia.dto.ProductStockUpdate;
+import com.frutolandia.event.ProductChangedEvent;
+import com.frutolandia.event.ProductStockChangedEvent;
+import com.frutolandia.event.ProductsImportedEvent;
+import com.frutolandia.exception.ServiceUnavailableException;
+import com.frutolandia.model.Product;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Difusión en tiempo real de cambios de precio y stock (Server-Sent Events).
+ * <p>
+ * Un único publicador recibe los cambios de producto tras el commit y los
+ * reparte a todos los suscriptores. Cada suscriptor tiene un buffer acotado
+ * indexado por producto, de modo que varias actualizaciones seguidas del
+ * mismo producto se fusionan y solo se envía el último valor. Un hilo
+ * despachador vacía los buffers a intervalos cortos; si un cliente lento
+ * desborda su buffer se le pide que se resincronice y se cierra su conexión.
+ * </p>
+ * <p>
+ * El número de conexiones abiertas por nodo está limitado.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class ProductUpdateBroadcaster {
+
+    /** Intervalo de envío; las actualizaciones dentro del intervalo se fusionan. */
+    private static final long FLUSH_INTERVAL_MILLIS = 250;
+
+    /** Intervalo del comentario de keep-alive para detectar conexiones caídas. */
+    private static final long HEARTBEAT_INTERVAL_SECONDS = 20;
+
+    /** Duración máxima de una conexión; EventSource reconecta automáticamente. */
+    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final int maxConnections;
+    private final int bufferSize;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Map<Long, ProductStockUpdate> lastPublished = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProductUpdateBroadcaster(
+            @Value("${frutolandia.stream.max-connections:1000}") int maxConnections,
+            @Value("${frutolandia.stream.buffer-size:256}") int bufferSize) {
+        this.maxConnections = maxConnections;
+        this.bufferSize = bufferSize;
+        dispatcher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Abre una nueva suscripción.
+     *
+     * @param productIds productos de interés; vacío o {@code null} para todos
+     * @return el emisor SSE de la conexión
+     * @throws ServiceUnavailableException si se ha alcanzado el máximo de conexiones
+     */
+    public SseEmitter subscribe(Set<Long> productIds) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ServiceUnavailableException("Se ha alcanzado el número máximo de conexiones en tiempo real");
+        }
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(emitter, productIds == null || productIds.isEmpty() ? null : Set.copyOf(productIds));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Número de conexiones abiertas en este nodo.
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Reparte un cambio de producto a los suscriptores tras el commit.
+     * <p>
+     * Solo se difunde si cambia el precio o el stock respecto al último
+     * valor publicado.
+     * </p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        broadcast(toUpdate(event));
+    }
+
+    /**
+     * Reparte los productos de un lote de cambios de stock.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        event.getProducts().forEach(product -> broadcast(toUpdate(product)));
+    }
+
+    /**
+     * Reparte los productos de un lote de la importación masiva.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        event.getProducts().forEach(product -> broadcast(toUpdate(product)));
+    }
+
+    private void broadcast(ProductStockUpdate update) {
+        ProductStockUpdate previous = update.isDeleted()
+                ? lastPublished.remove(update.getProductId())
+                : lastPublished.put(update.getProductId(), update);
+        if (update.equals(previous)) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(update, bufferSize);
+        }
+    }
+
+    private static ProductStockUpdate toUpdate(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            return new ProductStockUpdate(event.getProductId(), null, null, true);
+        }
+        return toUpdate(event.getProduct());
+    }
+
+    private static ProductStockUpdate toUpdate(Product product) {
+        return new ProductStockUpdate(product.getId(), product.getPrice(), product.getStockQuantity(), false);
+    }
+
+    private void flush() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.flush();
+            } catch (IOException | IllegalStateException e) {
+                subscriber.emitter.completeWithError(e);
+                unsubscribe(subscriber);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                subscriber.emitter.completeWithError(e);
+                unsubscribe(subscriber);
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones al parar la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * Conexión SSE con su buffer de actualizaciones pendientes.
+     * <p>
+     * El buffer está indexado por producto para fusionar actualizaciones y
+     * solo lo vacía el hilo despachador, que es el único que escribe en el
+     * emisor.
+     * </p>
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Long> productIds;
+        private final Map<Long, ProductStockUpdate> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+
+        Subscriber(SseEmitter emitter, Set<Long> productIds) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+        }
+
+        synchronized void offer(ProductStockUpdate update, int bufferSize) {
+            if (overflowed || (productIds != null && !productIds.contains(update.getProductId()))) {
+                return;
+            }
+            if (pending.size() >= bufferSize && !pending.containsKey(update.getProductId())) {
+                overflowed = true;
+                pending.clear();
+                return;
+            }
+            pending.put(update.getProductId(), update);
+        }
+
+        void flush() throws IOException {
+            List<ProductStockUpdate> batch;
+            boolean resync;
+            synchronized (this) {
+                if (pending.isEmpty() && !overflowed) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                resync = overflowed;
+            }
+            if (resync) {
+                emitter.send(SseEmitter.event().name("resync").data(""));
+                emitter.complete();
+                return;
+            }
+            emitter.send(SseEmitter.event().name("products").data(batch));
+        }
+    }
+}
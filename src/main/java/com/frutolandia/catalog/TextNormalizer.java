@@ -0,0 +1,46 @@
+package com.frutolandia.catalog;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para los índices del catálogo.
+ * <p>
+ * Elimina tildes y diacríticos, pasa a minúsculas y sustituye cualquier
+ * carácter que no sea letra o dígito por un espacio, de modo que
+ * "Limón" y "limon" producen la misma forma.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Normaliza un texto; devuelve una cadena vacía si es {@code null}.
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String plain = DIACRITICS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Normaliza un texto y lo divide en palabras.
+     */
+    public static String[] tokens(String text) {
+        String folded = fold(text);
+        return folded.isEmpty() ? new String[0] : folded.split(" ");
+    }
+}
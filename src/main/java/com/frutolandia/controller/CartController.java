@@ -2,6 +2,11 @@ package com.frutolandia.controller;
 
 import com.frutolandia.dto.CartItemRequest;
 import com.frutolandia.dto.CartItemResponse;
+import com.frutolandia.dto.CartItemView;
+import com.frutolandia.dto.CartPatchRequest;
+import com.frutolandia.dto.CartSummary;
+import com.frutolandia.dto.CartSweeperStats;
+import com.frutolandia.idempotency.IdempotencyService;
 import com.frutolandia.security.JwtUtil;
 import com.frutolandia.service.CartService;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +32,7 @@ public class CartController {
 
     private final CartService cartService;
     private final JwtUtil jwtUtil;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Extrae el ID del usuario desde el token JWT.
@@ -38,19 +44,50 @@ public class CartController {
 
     /**
      * Obtiene todos los ítems del carrito del usuario autenticado.
+     * Por defecto devuelve una vista reducida de cada línea; con
+     * {@code expand=product} incluye el producto completo.
      */
     @GetMapping
-    public ResponseEntity<List<CartItemResponse>> getCart(
-            @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<?>> getCart(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) String expand) {
         try {
             Long userId = getUserIdFromToken(authHeader);
-            List<CartItemResponse> items = cartService.getCartItems(userId);
+            if ("product".equals(expand)) {
+                List<CartItemResponse> items = cartService.getCartItems(userId);
+                return ResponseEntity.ok(items);
+            }
+            List<CartItemView> items = cartService.getCartItemViews(userId);
             return ResponseEntity.ok(items);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Obtiene el resumen del carrito del usuario autenticado: número de
+     * unidades, subtotal y total por línea.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummary> getCartSummary(
+            @RequestHeader("Authorization") String authHeader) {
+        try {
+            Long userId = getUserIdFromToken(authHeader);
+            return ResponseEntity.ok(cartService.getCartSummary(userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Obtiene las métricas del barrido de carritos abandonados
+     * (solo administradores).
+     */
+    @GetMapping("/sweeper")
+    public ResponseEntity<CartSweeperStats> getSweeperStats() {
+        return ResponseEntity.ok(cartService.getSweeperStats());
+    }
+
     /**
      * Añade un producto al carrito.
      */
@@ -58,20 +95,23 @@ public class CartController {
     @SuppressWarnings("null")
     public ResponseEntity<?> addToCart(
             @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody CartItemRequest request) {
-        try {
-            Long userId = getUserIdFromToken(authHeader);
-            CartItemResponse item = cartService.addToCart(
-                    userId, 
-                    request.getProductId(), 
-                    request.getQuantity()
-            );
-            return ResponseEntity.status(HttpStatus.CREATED).body(item);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Error al añadir al carrito: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-        }
+        Long userId = getUserIdFromToken(authHeader);
+        return idempotencyService.execute(String.valueOf(userId), idempotencyKey, "POST /api/cart", request, () -> {
+            try {
+                CartItemResponse item = cartService.addToCart(
+                        userId, 
+                        request.getProductId(), 
+                        request.getQuantity()
+                );
+                return ResponseEntity.status(HttpStatus.CREATED).body(item);
+            } catch (Exception e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Error al añadir al carrito: " + e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+        });
     }
 
     /**
@@ -81,26 +121,53 @@ public class CartController {
     @SuppressWarnings("null")
     public ResponseEntity<?> updateCartItem(
             @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @PathVariable Long productId,
             @RequestBody CartItemRequest request) {
-        try {
-            Long userId = getUserIdFromToken(authHeader);
-            CartItemResponse item = cartService.updateCartItem(
-                    userId, 
-                    productId, 
-                    request.getQuantity()
-            );
+        Long userId = getUserIdFromToken(authHeader);
+        return idempotencyService.execute(String.valueOf(userId), idempotencyKey, "PUT /api/cart/" + productId, request, () -> {
+            try {
+                CartItemResponse item = cartService.updateCartItem(
+                        userId, 
+                        productId, 
+                        request.getQuantity()
+                );
             
-            if (item == null) {
-                return ResponseEntity.noContent().build();
-            }
+                if (item == null) {
+                    return ResponseEntity.noContent().build();
+                }
             
-            return ResponseEntity.ok(item);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Error al actualizar carrito: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-        }
+                return ResponseEntity.ok(item);
+            } catch (Exception e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Error al actualizar carrito: " + e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+        });
+    }
+
+    /**
+     * Modifica varias líneas del carrito en una sola petición.
+     * Acepta una lista de operaciones o el estado final deseado del carrito
+     * y devuelve el carrito resultante.
+     */
+    @PatchMapping
+    @SuppressWarnings("null")
+    public ResponseEntity<?> patchCart(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody CartPatchRequest request) {
+        Long userId = getUserIdFromToken(authHeader);
+        return idempotencyService.execute(String.valueOf(userId), idempotencyKey, "PATCH /api/cart", request, () -> {
+            try {
+                List<CartItemResponse> items = cartService.patchCart(userId, request);
+                return ResponseEntity.ok(items);
+            } catch (Exception e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Error al modificar carrito: " + e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+        });
     }
 
     /**
@@ -109,16 +176,19 @@ public class CartController {
     @DeleteMapping("/{productId}")
     public ResponseEntity<?> removeFromCart(
             @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @PathVariable Long productId) {
-        try {
-            Long userId = getUserIdFromToken(authHeader);
-            cartService.removeFromCart(userId, productId);
-            return ResponseEntity.noContent().build();
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Error al eliminar del carrito: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-        }
+        Long userId = getUserIdFromToken(authHeader);
+        return idempotencyService.execute(String.valueOf(userId), idempotencyKey, "DELETE /api/cart/" + productId, null, () -> {
+            try {
+                cartService.removeFromCart(userId, productId);
+                return ResponseEntity.noContent().build();
+            } catch (Exception e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Error al eliminar del carrito: " + e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+        });
     }
 
     /**
@@ -126,15 +196,18 @@ public class CartController {
      */
     @DeleteMapping
     public ResponseEntity<?> clearCart(
-            @RequestHeader("Authorization") String authHeader) {
-        try {
-            Long userId = getUserIdFromToken(authHeader);
-            cartService.clearCart(userId);
-            return ResponseEntity.noContent().build();
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Error al vaciar carrito: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-        }
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Long userId = getUserIdFromToken(authHeader);
+        return idempotencyService.execute(String.valueOf(userId), idempotencyKey, "DELETE /api/cart", null, () -> {
+            try {
+                cartService.clearCart(userId);
+                return ResponseEntity.noContent().build();
+            } catch (Exception e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Error al vaciar carrito: " + e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+        });
     }
 }
@@ -1,7 +1,12 @@
 package com.frutolandia.controller;
 
+import com.frutolandia.dto.FavoriteStateRequest;
+import com.frutolandia.dto.FavoriteView;
+import com.frutolandia.idempotency.IdempotencyService;
 import com.frutolandia.model.Product;
+import com.frutolandia.security.JwtUtil;
 import com.frutolandia.service.FavoriteService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,6 +15,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para la gestión de productos favoritos.
@@ -28,17 +34,37 @@ import java.util.List;
 public class FavoriteController {
 
     private final FavoriteService favoriteService;
+    private final IdempotencyService idempotencyService;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * Extrae el ID del usuario desde el token JWT.
+     */
+    private Long getUserIdFromToken(String authHeader) {
+        return jwtUtil.extractUserId(authHeader.substring(7));
+    }
 
     /**
      * Obtiene todos los productos favoritos del usuario autenticado.
+     * <p>
+     * Por defecto devuelve una vista reducida (ID, nombre, precio y stock);
+     * con {@code expand=product} devuelve los productos completos.
+     * </p>
      *
+     * @param expand {@code product} para incluir los productos completos (opcional)
      * @param authentication la autenticación del usuario
-     * @return ResponseEntity con la lista de productos favoritos
+     * @return ResponseEntity con la lista de favoritos
      */
     @GetMapping
-    public ResponseEntity<List<Product>> getFavorites(Authentication authentication) {
+    public ResponseEntity<List<?>> getFavorites(
+            @RequestParam(required = false) String expand,
+            Authentication authentication) {
         String email = authentication.getName();
-        List<Product> favorites = favoriteService.getFavoritesByUserEmail(email);
+        if ("product".equals(expand)) {
+            List<Product> favorites = favoriteService.getFavoritesByUserEmail(email);
+            return ResponseEntity.ok(favorites);
+        }
+        List<FavoriteView> favorites = favoriteService.getFavoriteViewsByUserEmail(email);
         return ResponseEntity.ok(favorites);
     }
 
@@ -46,31 +72,81 @@ public class FavoriteController {
      * Agrega un producto a los favoritos del usuario autenticado.
      *
      * @param productId el ID del producto a agregar
+     * @param authHeader cabecera Authorization con el token JWT
+     * @param idempotencyKey clave de idempotencia (opcional)
      * @param authentication la autenticación del usuario
      * @return ResponseEntity con el producto agregado
      */
     @PostMapping("/{productId}")
-    public ResponseEntity<Product> addFavorite(
+    public ResponseEntity<?> addFavorite(
             @PathVariable @NonNull Long productId,
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         String email = authentication.getName();
-        Product product = favoriteService.addFavorite(email, productId);
-        return ResponseEntity.status(HttpStatus.CREATED).body(product);
+        Long userId = getUserIdFromToken(authHeader);
+        return idempotencyService.execute(email, idempotencyKey, "POST /api/users/favorites/" + productId, null, () -> {
+            Product product = favoriteService.addFavorite(userId, productId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(product);
+        });
     }
 
     /**
      * Elimina un producto de los favoritos del usuario autenticado.
      *
      * @param productId el ID del producto a eliminar
+     * @param authHeader cabecera Authorization con el token JWT
+     * @param idempotencyKey clave de idempotencia (opcional)
      * @param authentication la autenticación del usuario
      * @return ResponseEntity vacío con código 204
      */
     @DeleteMapping("/{productId}")
-    public ResponseEntity<Void> removeFavorite(
+    public ResponseEntity<?> removeFavorite(
             @PathVariable @NonNull Long productId,
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         String email = authentication.getName();
-        favoriteService.removeFavorite(email, productId);
+        Long userId = getUserIdFromToken(authHeader);
+        return idempotencyService.execute(email, idempotencyKey, "DELETE /api/users/favorites/" + productId, null, () -> {
+            favoriteService.removeFavorite(userId, productId);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * Marca o desmarca un producto como favorito del usuario autenticado.
+     * <p>
+     * A diferencia de POST y DELETE, repetir la petición no es un error: el
+     * favorito queda en el estado indicado.
+     * </p>
+     *
+     * @param productId el ID del producto
+     * @param authHeader cabecera Authorization con el token JWT
+     * @param request estado deseado
+     * @return ResponseEntity vacío con código 204
+     */
+    @PutMapping("/{productId}")
+    public ResponseEntity<Void> setFavorite(
+            @PathVariable @NonNull Long productId,
+            @RequestHeader("Authorization") String authHeader,
+            @Valid @RequestBody FavoriteStateRequest request) {
+        favoriteService.setFavorite(getUserIdFromToken(authHeader), productId, request.getFavorited());
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Comprueba de una vez qué productos están en los favoritos del usuario
+     * autenticado, por ejemplo para marcar los productos de una página.
+     *
+     * @param authHeader cabecera Authorization con el token JWT
+     * @param productIds IDs de los productos a comprobar (como mucho 500)
+     * @return ResponseEntity con un objeto ID de producto → favorito
+     */
+    @PostMapping("/contains")
+    public ResponseEntity<Map<Long, Boolean>> containsFavorites(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody @NonNull List<Long> productIds) {
+        return ResponseEntity.ok(favoriteService.containsFavorites(getUserIdFromToken(authHeader), productIds));
+    }
 }
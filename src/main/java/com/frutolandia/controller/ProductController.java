@@ -1,15 +1,41 @@
 package com.frutolandia.controller;
 
+import com.frutolandia.catalog.CatalogResponseCache;
+import com.frutolandia.catalog.ProductUpdateBroadcaster;
+import com.frutolandia.dto.CatalogChangesResponse;
+import com.frutolandia.dto.PopularProduct;
+import com.frutolandia.dto.ProductFilterResponse;
+import com.frutolandia.dto.ProductImportResponse;
+import com.frutolandia.dto.ProductPageResponse;
+import com.frutolandia.dto.ProductSuggestion;
+import com.frutolandia.dto.RelatedProduct;
+import com.frutolandia.exception.BadRequestException;
 import com.frutolandia.model.Product;
+import com.frutolandia.popularity.PopularityTracker;
+import com.frutolandia.recommendation.RecommendationEngine;
+import com.frutolandia.security.JwtUtil;
+import com.frutolandia.service.CatalogExportService;
+import com.frutolandia.service.FavoriteService;
+import com.frutolandia.service.ProductImportService;
 import com.frutolandia.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -31,6 +57,14 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogResponseCache catalogResponseCache;
+    private final CatalogExportService catalogExportService;
+    private final ProductImportService productImportService;
+    private final ProductUpdateBroadcaster productUpdateBroadcaster;
+    private final FavoriteService favoriteService;
+    private final JwtUtil jwtUtil;
+    private final PopularityTracker popularityTracker;
+    private final RecommendationEngine recommendationEngine;
 
     /**
      * Crea un nuevo producto.
@@ -45,6 +79,37 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(productService.createProduct(product));
     }
 
+    /**
+     * Importa productos de forma masiva desde NDJSON o CSV.
+     * Solo accesible para administradores.
+     * <p>
+     * Cada fila se valida con las mismas restricciones que la creación
+     * individual; las filas no válidas se informan en la respuesta y no
+     * impiden guardar el resto.
+     * </p>
+     *
+     * @param contentType tipo de contenido: application/x-ndjson o text/csv
+     * @param body cuerpo de la petición
+     * @return ResponseEntity con el número de productos importados y los errores por fila
+     * @throws IOException si falla la lectura del cuerpo
+     */
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        ProductImportService.Format format;
+        if (mediaType.isCompatibleWith(new MediaType("text", "csv"))) {
+            format = ProductImportService.Format.CSV;
+        } else if (mediaType.isCompatibleWith(MediaType.parseMediaType("application/x-ndjson"))) {
+            format = ProductImportService.Format.NDJSON;
+        } else {
+            throw new BadRequestException("Tipo de contenido no admitido: " + contentType);
+        }
+        return ResponseEntity.ok(productImportService.importProducts(body, format));
+    }
+
     /**
      * Obtiene un producto por su ID.
      *
@@ -59,23 +124,292 @@ public class ProductController {
 
     /**
      * Obtiene todos los productos disponibles.
+     * <p>
+     * Sin parámetros de paginación devuelve el JSON precalculado para la
+     * versión vigente del catálogo, comprimido según Accept-Encoding, con un
+     * ETag fuerte. Si el cliente envía If-None-Match con el mismo ETag se
+     * responde 304 sin cuerpo.
+     * </p>
+     * <p>
+     * {@code sort=id|price|name|stock}, {@code order} y el rango
+     * {@code minPrice}/{@code maxPrice} devuelven el catálogo ordenado a
+     * partir de los índices en memoria. Con {@code limit}, {@code after} o
+     * {@code cursor} se devuelve una página de ese mismo listado junto con
+     * el cursor de la página siguiente.
+     * </p>
+     * <p>
+     * Con {@code include=favorited} y un usuario autenticado, cada producto
+     * incluye {@code favorited} según los favoritos en caché del usuario; la
+     * respuesta no usa entonces el JSON precalculado.
+     * </p>
      *
-     * @return ResponseEntity con la lista de todos los productos y código HTTP 200 (OK)
+     * @param limit tamaño de página (opcional)
+     * @param after último ID recibido en la ordenación por ID (opcional)
+     * @param cursor cursor opaco de la página anterior (opcional)
+     * @param sort ordenación: id, price, name o stock (opcional, id por defecto)
+     * @param order sentido de la ordenación: asc o desc (opcional)
+     * @param minPrice precio mínimo (opcional)
+     * @param maxPrice precio máximo (opcional)
+     * @param include {@code favorited} para marcar los favoritos del usuario (opcional)
+     * @param acceptEncoding cabecera Accept-Encoding del cliente (opcional)
+     * @param authHeader cabecera Authorization (opcional)
+     * @param authentication la autenticación del usuario, si la hay
+     * @return ResponseEntity con la lista de productos y código HTTP 200 (OK)
      */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String include,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+            Authentication authentication) {
+        Long favoritesOf = favoritesOf(include, authHeader, authentication);
+        if (limit != null || after != null || cursor != null) {
+            return ResponseEntity.ok(withFavorites(favoritesOf,
+                    productService.getProductsPage(sort, order, minPrice, maxPrice, after, cursor, limit)));
+        }
+        boolean sortedById = sort == null || sort.equalsIgnoreCase("id");
+        boolean ascending = order == null || order.equalsIgnoreCase("asc");
+        if (!sortedById || !ascending || minPrice != null || maxPrice != null) {
+            return ResponseEntity.ok(withFavorites(favoritesOf,
+                    productService.getSortedProducts(sort, order, minPrice, maxPrice)));
+        }
+        if (favoritesOf != null) {
+            return ResponseEntity.ok(withFavorites(favoritesOf, productService.getAllProducts()));
+        }
+        return cachedCatalog(acceptEncoding);
+    }
+
+    /**
+     * Usuario cuyos favoritos hay que marcar en un listado: solo con
+     * {@code include=favorited} y una petición autenticada.
+     */
+    private Long favoritesOf(String include, String authHeader, Authentication authentication) {
+        if (!"favorited".equals(include) || authentication == null
+                || authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        return jwtUtil.extractUserId(authHeader.substring(7));
+    }
+
+    private List<?> withFavorites(Long userId, List<Product> products) {
+        return userId == null ? products : favoriteService.markFavorites(userId, products);
+    }
+
+    private ProductPageResponse<?> withFavorites(Long userId, ProductPageResponse<Product> page) {
+        if (userId == null) {
+            return page;
+        }
+        return new ProductPageResponse<>(favoriteService.markFavorites(userId, page.getItems()), page.getNextCursor());
+    }
+
+    private ResponseEntity<byte[]> cachedCatalog(String acceptEncoding) {
+        CatalogResponseCache.EncodedCatalog catalog = catalogResponseCache.current();
+        String encoding = catalog.negotiate(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(catalog.etag(encoding))
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        return response.body(catalog.body(encoding));
     }
 
     /**
      * Busca productos por nombre (búsqueda parcial, no sensible a mayúsculas).
+     * <p>
+     * Con {@code limit}, {@code after} o {@code cursor} devuelve los
+     * resultados paginados por ID junto con el cursor de la página siguiente.
+     * </p>
+     * <p>
+     * Con {@code q} en lugar de {@code name} realiza una búsqueda de texto
+     * libre sobre nombre, ingredientes y descripción, sin distinguir tildes,
+     * y devuelve hasta {@code limit} resultados ordenados por relevancia.
+     * </p>
      *
      * @param name el nombre o parte del nombre a buscar
+     * @param q texto libre para la búsqueda por relevancia
+     * @param limit tamaño de página o número máximo de resultados (opcional)
+     * @param after último ID recibido (opcional)
+     * @param cursor cursor opaco de la página anterior (opcional)
+     * @param include {@code favorited} para marcar los favoritos del usuario (opcional)
+     * @param authHeader cabecera Authorization (opcional)
+     * @param authentication la autenticación del usuario, si la hay
      * @return ResponseEntity con la lista de productos que coinciden con la búsqueda y código HTTP 200 (OK)
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        return ResponseEntity.ok(productService.searchProductsByName(name));
+    public ResponseEntity<?> searchProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String include,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+            Authentication authentication) {
+        Long favoritesOf = favoritesOf(include, authHeader, authentication);
+        if (q != null) {
+            return ResponseEntity.ok(withFavorites(favoritesOf, productService.searchProducts(q, limit)));
+        }
+        if (name == null) {
+            throw new BadRequestException("Debe indicar el parámetro 'name' o 'q'");
+        }
+        if (limit != null || after != null || cursor != null) {
+            return ResponseEntity.ok(withFavorites(favoritesOf, productService.searchProductsPage(name, after, cursor, limit)));
+        }
+        return ResponseEntity.ok(withFavorites(favoritesOf, productService.searchProductsByName(name)));
+    }
+
+    /**
+     * Sincronización incremental del catálogo.
+     * <p>
+     * Devuelve solo los productos creados o modificados y los IDs eliminados
+     * desde la versión indicada; sin {@code since} devuelve el catálogo
+     * completo. El cliente debe guardar {@code version} y enviarlo en la
+     * siguiente petición.
+     * </p>
+     *
+     * @param since última versión recibida (opcional)
+     * @return ResponseEntity con los cambios y código HTTP 200 (OK)
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<CatalogChangesResponse> getCatalogChanges(@RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(productService.getChangesSince(since));
+    }
+
+    /**
+     * Stream en tiempo real (Server-Sent Events) de cambios de precio y stock.
+     * <p>
+     * Envía eventos {@code products} con la lista de productos modificados
+     * desde el envío anterior. Un evento {@code resync} indica que el cliente
+     * se ha quedado atrás y debe recargar los productos antes de reconectar.
+     * </p>
+     *
+     * @param ids productos de interés (parámetro repetible, opcional; por defecto todos)
+     * @return el emisor SSE de la conexión
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductUpdates(@RequestParam(required = false) List<Long> ids) {
+        return productUpdateBroadcaster.subscribe(ids == null ? null : new HashSet<>(ids));
+    }
+
+    /**
+     * Sugerencias de autocompletado mientras el usuario escribe.
+     *
+     * @param prefix prefijo de cualquier palabra del nombre del producto
+     * @param limit número máximo de sugerencias (opcional)
+     * @return ResponseEntity con las sugerencias y código HTTP 200 (OK)
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    /**
+     * Productos más populares: los más veces añadidos a favoritos o al
+     * carrito. El ranking se sirve desde memoria y se actualiza
+     * periódicamente.
+     *
+     * @param by contador del ranking: favorites (por defecto) o cart
+     * @param limit número de productos (opcional, 10 por defecto)
+     * @return ResponseEntity con los productos de mayor a menor popularidad y código HTTP 200 (OK)
+     * @throws BadRequestException si el contador o el límite no son válidos
+     */
+    @GetMapping("/popular")
+    public ResponseEntity<List<PopularProduct>> getPopularProducts(
+            @RequestParam(defaultValue = "favorites") String by,
+            @RequestParam(defaultValue = "10") int limit) {
+        PopularityTracker.Metric metric;
+        if (by.equalsIgnoreCase("favorites")) {
+            metric = PopularityTracker.Metric.FAVORITES;
+        } else if (by.equalsIgnoreCase("cart")) {
+            metric = PopularityTracker.Metric.CART_ADDS;
+        } else {
+            throw new BadRequestException("Ranking no válido: " + by);
+        }
+        return ResponseEntity.ok(popularityTracker.top(metric, limit));
+    }
+
+    /**
+     * Productos relacionados: los que más usuarios tienen en favoritos o en
+     * el carrito junto al indicado. Se sirven desde memoria, ya ordenados.
+     *
+     * @param id el identificador del producto
+     * @param limit número de productos (opcional, 10 por defecto)
+     * @return ResponseEntity con los productos de mayor a menor coincidencia y código HTTP 200 (OK)
+     * @throws com.frutolandia.exception.ResourceNotFoundException si el producto no existe
+     * @throws BadRequestException si el límite no es válido
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedProduct>> getRelatedProducts(
+            @PathVariable @NonNull Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        productService.getProductById(id);
+        return ResponseEntity.ok(recommendationEngine.related(id, limit));
+    }
+
+    /**
+     * Filtra productos por ingredientes, precio y stock.
+     * <p>
+     * Todos los ingredientes indicados deben estar presentes. La respuesta
+     * incluye el recuento de productos del resultado por ingrediente, por
+     * tramo de precio y con stock, para construir los filtros del front.
+     * </p>
+     *
+     * @param ingredient ingredientes requeridos (parámetro repetible, opcional)
+     * @param minPrice precio mínimo (opcional)
+     * @param maxPrice precio máximo (opcional)
+     * @param inStock filtrar por disponibilidad (opcional)
+     * @param limit número máximo de productos devueltos (opcional)
+     * @return ResponseEntity con los productos y las facetas y código HTTP 200 (OK)
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResponse> filterProducts(
+            @RequestParam(required = false) List<String> ingredient,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.filterProducts(ingredient, minPrice, maxPrice, inStock, limit));
+    }
+
+    /**
+     * Exporta el catálogo completo en streaming.
+     * <p>
+     * Los productos se escriben en la respuesta a medida que se leen de la
+     * base de datos, sin construir la lista completa en memoria.
+     * </p>
+     *
+     * @param format formato de salida: ndjson (por defecto) o csv
+     * @return ResponseEntity con el cuerpo en streaming y código HTTP 200 (OK)
+     * @throws BadRequestException si el formato no es válido
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        if (format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"")
+                    .body(catalogExportService::exportNdjson);
+        }
+        if (format.equalsIgnoreCase("csv")) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.csv\"")
+                    .body(catalogExportService::exportCsv);
+        }
+        throw new BadRequestException("Formato de exportación no válido: " + format);
     }
 
     /**
@@ -0,0 +1,29 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyección reducida de un ítem del carrito.
+ * <p>
+ * Contiene solo los datos del producto que necesita la vista del carrito,
+ * sin la descripción ni los ingredientes. Se compone a partir de las líneas
+ * del carrito y del catálogo en memoria.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemView {
+    private Long id;
+    private Long productId;
+    private String name;
+    private Double price;
+    private Integer quantity;
+    private Integer stockQuantity;
+}
@@ -0,0 +1,34 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para una operación sobre una línea del carrito en una modificación por lotes.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperation {
+
+    /**
+     * Tipo de operación.
+     */
+    public enum Type {
+        /** Suma la cantidad a la línea, creándola si no existe. */
+        ADD,
+        /** Fija la cantidad de la línea; 0 la elimina. */
+        SET,
+        /** Elimina la línea. */
+        REMOVE
+    }
+
+    private Type op;
+    private Long productId;
+    private Integer quantity;
+}
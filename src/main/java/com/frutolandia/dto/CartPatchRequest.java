@@ -0,0 +1,35 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para modificar el carrito en una sola petición.
+ * <p>
+ * Debe indicarse solo uno de los dos campos: una lista de operaciones que
+ * se aplican en orden, o el estado final deseado del carrito, que el
+ * servidor compara con el actual.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartPatchRequest {
+
+    /**
+     * Operaciones a aplicar en orden.
+     */
+    private List<CartOperation> operations;
+
+    /**
+     * Contenido final deseado del carrito; los productos no incluidos se eliminan.
+     */
+    private List<CartItemRequest> items;
+}
@@ -0,0 +1,50 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO con los totales del carrito calculados en el servidor.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummary {
+
+    /**
+     * Número total de unidades en el carrito.
+     */
+    private int itemCount;
+
+    /**
+     * Suma de los totales de todas las líneas.
+     */
+    private BigDecimal subtotal;
+
+    /**
+     * Totales por línea.
+     */
+    private List<Line> lines;
+
+    /**
+     * Total de una línea del carrito.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private String name;
+        private BigDecimal unitPrice;
+        private Integer quantity;
+        private BigDecimal lineTotal;
+    }
+}
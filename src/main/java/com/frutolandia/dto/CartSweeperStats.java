@@ -0,0 +1,66 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con las métricas del barrido de carritos abandonados.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSweeperStats {
+
+    /**
+     * Tiempo sin actividad tras el que un carrito se elimina, en segundos.
+     */
+    private long idleTtlSeconds;
+
+    /**
+     * Carritos con vencimiento programado.
+     */
+    private int trackedCarts;
+
+    /**
+     * Carritos vencidos pendientes de eliminar.
+     */
+    private int pendingCarts;
+
+    /**
+     * Carritos eliminados desde el arranque.
+     */
+    private long sweptCarts;
+
+    /**
+     * Filas eliminadas desde el arranque: líneas de {@code cart_items} o
+     * carritos completos, según el almacenamiento.
+     */
+    private long sweptRows;
+
+    /**
+     * Lotes de eliminación ejecutados desde el arranque.
+     */
+    private long batches;
+
+    /**
+     * Lotes que fallaron y se reintentarán.
+     */
+    private long failedBatches;
+
+    /**
+     * Fecha del último lote; {@code null} si aún no se ha ejecutado ninguno.
+     */
+    private LocalDateTime lastBatchAt;
+
+    /**
+     * Duración del último lote en milisegundos.
+     */
+    private long lastBatchMillis;
+}
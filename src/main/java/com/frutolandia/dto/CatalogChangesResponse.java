@@ -0,0 +1,41 @@
+package com.frutolandia.dto;
+
+import com.frutolandia.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con los cambios del catálogo posteriores a una versión.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChangesResponse {
+
+    /**
+     * Versión que el cliente debe enviar como {@code since} en la siguiente petición.
+     */
+    private long version;
+
+    /**
+     * {@code true} si la respuesta contiene el catálogo completo en lugar de un delta.
+     */
+    private boolean full;
+
+    /**
+     * Productos creados o modificados.
+     */
+    private List<Product> upserts;
+
+    /**
+     * IDs de los productos eliminados.
+     */
+    private List<Long> deletes;
+}
@@ -0,0 +1,22 @@
+package com.frutolandia.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para marcar o desmarcar un producto como favorito.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteStateRequest {
+
+    @NotNull(message = "Debe indicar si el producto es favorito")
+    private Boolean favorited;
+}
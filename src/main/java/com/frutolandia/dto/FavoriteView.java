@@ -0,0 +1,26 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyección reducida de un producto favorito.
+ * <p>
+ * Contiene solo los datos del producto que necesita la lista de favoritos,
+ * sin la descripción ni los ingredientes.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteView {
+    private Long productId;
+    private String name;
+    private Double price;
+    private Integer stockQuantity;
+}
@@ -0,0 +1,35 @@
+package com.frutolandia.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.frutolandia.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Producto de un listado con la marca de favorito del usuario autenticado.
+ * <p>
+ * Se serializa con los mismos campos que {@link Product} más
+ * {@code favorited}.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoritedProduct {
+
+    /**
+     * Producto del listado.
+     */
+    @JsonUnwrapped
+    private Product product;
+
+    /**
+     * Indica si el producto está en los favoritos del usuario.
+     */
+    private boolean favorited;
+}
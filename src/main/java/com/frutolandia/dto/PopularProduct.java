@@ -0,0 +1,29 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Producto de un ranking de popularidad.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PopularProduct {
+
+    private Long productId;
+
+    private String name;
+
+    private Double price;
+
+    /**
+     * Valor del contador por el que se ordena el ranking.
+     */
+    private long count;
+}
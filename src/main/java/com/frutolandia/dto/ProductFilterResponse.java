@@ -0,0 +1,47 @@
+package com.frutolandia.dto;
+
+import com.frutolandia.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO para el resultado del filtrado por facetas del catálogo.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterResponse {
+
+    /**
+     * Productos que cumplen el filtro (como máximo el límite solicitado).
+     */
+    private List<Product> products;
+
+    /**
+     * Número total de productos que cumplen el filtro.
+     */
+    private int total;
+
+    /**
+     * Recuento de productos del resultado por ingrediente.
+     */
+    private Map<String, Integer> ingredients;
+
+    /**
+     * Recuento de productos del resultado por tramo de precio de un euro (ej: "5-6").
+     */
+    private Map<String, Integer> priceBands;
+
+    /**
+     * Número de productos del resultado con stock disponible.
+     */
+    private int inStock;
+}
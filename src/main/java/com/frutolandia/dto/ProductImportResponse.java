@@ -0,0 +1,55 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación masiva de productos.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+
+    /**
+     * Número de productos guardados.
+     */
+    private int imported;
+
+    /**
+     * Número de filas rechazadas.
+     */
+    private int failed;
+
+    /**
+     * Errores por fila (como máximo los primeros 1000).
+     */
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Error asociado a una fila de la entrada.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /**
+         * Número de línea de la entrada (empezando en 1).
+         */
+        private long line;
+
+        /**
+         * Descripción del error.
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,34 @@
+package com.frutolandia.dto;
+
+import com.frutolandia.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para una página de productos obtenida con paginación por cursor.
+ *
+ * @param <T> tipo de los elementos: {@link Product} o
+ *            {@link FavoritedProduct} si se piden los favoritos
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageResponse<T> {
+
+    /**
+     * Productos de la página.
+     */
+    private List<T> items;
+
+    /**
+     * Cursor opaco para pedir la página siguiente; {@code null} si no hay más.
+     */
+    private String nextCursor;
+}
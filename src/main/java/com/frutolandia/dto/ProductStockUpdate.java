@@ -0,0 +1,39 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el precio y el stock de un producto, enviado en tiempo real a
+ * los clientes suscritos al stream de productos.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockUpdate {
+
+    /**
+     * ID del producto.
+     */
+    private Long productId;
+
+    /**
+     * Precio vigente; {@code null} si el producto se ha eliminado.
+     */
+    private Double price;
+
+    /**
+     * Stock disponible; {@code null} si el producto se ha eliminado.
+     */
+    private Integer stockQuantity;
+
+    /**
+     * {@code true} si el producto se ha eliminado.
+     */
+    private boolean deleted;
+}
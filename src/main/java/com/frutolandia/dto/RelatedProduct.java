@@ -0,0 +1,29 @@
+package com.frutolandia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Producto recomendado junto a otro.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedProduct {
+
+    private Long productId;
+
+    private String name;
+
+    private Double price;
+
+    /**
+     * Favoritos y carritos en los que coinciden ambos productos.
+     */
+    private int score;
+}
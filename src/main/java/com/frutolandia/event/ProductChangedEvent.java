@@ -0,0 +1,52 @@
+package com.frutolandia.event;
+
+import com.frutolandia.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado cuando un producto se crea, se actualiza o se elimina.
+ * <p>
+ * Los componentes que mantienen estructuras en memoria sobre el catálogo
+ * lo escuchan una vez confirmada la transacción que originó el cambio.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    /**
+     * Identificador del producto afectado.
+     */
+    private final Long productId;
+
+    /**
+     * Estado del producto tras el cambio; {@code null} si se ha eliminado.
+     */
+    private final Product product;
+
+    /**
+     * Crea un evento de alta o modificación de un producto.
+     */
+    public static ProductChangedEvent upserted(Product product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    /**
+     * Crea un evento de eliminación de un producto.
+     */
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    /**
+     * Indica si el evento corresponde a una eliminación.
+     */
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.frutolandia.event;
+
+import com.frutolandia.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Evento publicado cuando el motor de reservas aplica un lote de cambios de
+ * stock.
+ * <p>
+ * A diferencia de {@link ProductChangedEvent}, agrupa todos los productos
+ * del lote y solo se espera que cambien su stock y su versión, así que los
+ * componentes en memoria pueden evitar el trabajo que dependa del resto de
+ * campos. Si algún producto trae además otros cambios, deben tratarlo como
+ * una actualización completa.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Getter
+@AllArgsConstructor
+public class ProductStockChangedEvent {
+
+    /**
+     * Productos del lote con su estado tras el cambio.
+     */
+    private final List<Product> products;
+}
@@ -0,0 +1,30 @@
+package com.frutolandia.event;
+
+import com.frutolandia.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Evento publicado cuando la importación masiva guarda un lote de productos
+ * nuevos.
+ * <p>
+ * Equivale a un {@link ProductChangedEvent} de alta por cada producto, pero
+ * agrupado, para que el catálogo en memoria construya una sola instantánea
+ * por lote en lugar de una por producto.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsImportedEvent {
+
+    /**
+     * Productos del lote, con el ID y la versión asignados al guardarlos.
+     */
+    private final List<Product> products;
+}
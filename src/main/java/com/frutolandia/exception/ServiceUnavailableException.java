@@ -0,0 +1,11 @@
+package com.frutolandia.exception;
+
+/**
+ * Excepción personalizada para servicios temporalmente no disponibles
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
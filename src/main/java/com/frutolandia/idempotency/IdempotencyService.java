@@ -0,0 +1,152 @@
+package com.frutolandia.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frutolandia.exception.BadRequestException;
+import com.frutolandia.exception.DuplicateResourceException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Ejecución idempotente de las peticiones de escritura.
+ * <p>
+ * Si la petición trae la cabecera {@value #HEADER}, la primera ejecución
+ * reserva la clave y, si termina con éxito (2xx), guarda su respuesta. Las
+ * repeticiones con la misma clave devuelven la respuesta guardada sin
+ * volver a ejecutar la operación. Las respuestas de error no se guardan,
+ * de modo que la petición puede reintentarse.
+ * </p>
+ * <p>
+ * Las claves son de cada usuario. Reutilizar una clave con otra operación
+ * u otro cuerpo es un error, y repetirla mientras la primera petición aún
+ * se ejecuta devuelve un conflicto.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    /** Cabecera con la clave de idempotencia. */
+    public static final String HEADER = "Idempotency-Key";
+
+    /** Cabecera que marca las respuestas repetidas. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    /** Tiempo tras el que una reserva sin respuesta se considera abandonada. */
+    private static final Duration IN_PROGRESS_TIMEOUT = Duration.ofMinutes(1);
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Ejecuta una operación respetando la clave de idempotencia.
+     *
+     * @param scope identificador del usuario que hace la petición
+     * @param key valor de la cabecera {@value #HEADER}; sin ella la operación
+     *            se ejecuta directamente
+     * @param operation método y ruta de la petición
+     * @param request cuerpo de la petición (puede ser {@code null})
+     * @param action operación a ejecutar
+     * @return la respuesta de la operación o la guardada
+     * @throws BadRequestException si la clave no es válida o ya se usó con
+     *         otra petición
+     * @throws DuplicateResourceException si la petición original aún se está
+     *         ejecutando
+     */
+    public ResponseEntity<?> execute(String scope, String key, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("La cabecera " + HEADER + " debe tener entre 1 y "
+                    + MAX_KEY_LENGTH + " caracteres");
+        }
+        String storedKey = hash(scope + "\n" + key);
+        String fingerprint = hash(operation + "\n" + toJson(request));
+
+        while (!idempotencyStore.begin(storedKey, fingerprint)) {
+            Optional<IdempotencyStore.Entry> existing = idempotencyStore.find(storedKey);
+            if (existing.isEmpty()) {
+                // Se liberó o caducó entretanto
+                continue;
+            }
+            IdempotencyStore.Entry entry = existing.get();
+            if (!entry.fingerprint().equals(fingerprint)) {
+                throw new BadRequestException("La clave de idempotencia ya se ha usado con otra petición");
+            }
+            if (entry.isCompleted()) {
+                return replay(entry);
+            }
+            if (entry.createdAt().isAfter(LocalDateTime.now().minus(IN_PROGRESS_TIMEOUT))) {
+                throw new DuplicateResourceException("Ya hay una petición en curso con esta clave de idempotencia");
+            }
+            idempotencyStore.abort(storedKey);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyStore.abort(storedKey);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            idempotencyStore.abort(storedKey);
+            return response;
+        }
+        try {
+            Object body = response.getBody();
+            idempotencyStore.complete(storedKey, response.getStatusCode().value(), body == null ? null : toJson(body));
+        } catch (RuntimeException e) {
+            // La operación ya se ha aplicado: se devuelve su respuesta aunque
+            // no haya podido guardarse
+            idempotencyStore.abort(storedKey);
+            e.printStackTrace();
+        }
+        return response;
+    }
+
+    private static ResponseEntity<?> replay(IdempotencyStore.Entry entry) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(entry.status())
+                .header(REPLAYED_HEADER, "true");
+        if (entry.body() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(entry.body());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar a JSON", e);
+        }
+    }
+
+    private static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
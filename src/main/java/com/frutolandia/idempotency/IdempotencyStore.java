@@ -0,0 +1,70 @@
+package com.frutolandia.idempotency;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Almacén de las respuestas de las peticiones con clave de idempotencia.
+ * <p>
+ * Una clave pasa por dos estados: reservada mientras la petición se
+ * ejecuta y completada con su respuesta. Las entradas caducan pasado
+ * {@code frutolandia.idempotency.ttl}.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Reserva una clave para ejecutar su petición.
+     *
+     * @param key clave
+     * @param fingerprint huella de la petición
+     * @return {@code true} si la clave estaba libre
+     */
+    boolean begin(String key, String fingerprint);
+
+    /**
+     * Obtiene la entrada vigente de una clave.
+     *
+     * @param key clave
+     * @return la entrada, o vacío si no existe o ha caducado
+     */
+    Optional<Entry> find(String key);
+
+    /**
+     * Guarda la respuesta de una petición reservada.
+     *
+     * @param key clave
+     * @param status código HTTP de la respuesta
+     * @param body cuerpo de la respuesta en JSON; {@code null} si no tiene
+     */
+    void complete(String key, int status, String body);
+
+    /**
+     * Libera una clave reservada para que la petición pueda repetirse.
+     *
+     * @param key clave
+     */
+    void abort(String key);
+
+    /**
+     * Entrada de una clave.
+     *
+     * @param fingerprint huella de la petición
+     * @param status código HTTP; {@code null} mientras la petición se ejecuta
+     * @param body cuerpo de la respuesta en JSON
+     * @param createdAt fecha de la reserva
+     */
+    record Entry(String fingerprint, Integer status, String body, LocalDateTime createdAt) {
+
+        /**
+         * Indica si la petición ya tiene respuesta.
+         */
+        public boolean isCompleted() {
+            return status != null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.frutolandia.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Almacén de idempotencia en memoria, para un único nodo
+ * ({@code frutolandia.idempotency.store=memory}, por defecto).
+ * <p>
+ * Las entradas se guardan en orden de reserva. Como todas tienen el mismo
+ * plazo, las caducadas están siempre al principio y se eliminan en cada
+ * acceso; si se supera {@code frutolandia.idempotency.max-entries} se
+ * descartan las más antiguas.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(name = "frutolandia.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Duration ttl;
+    private final int maxEntries;
+
+    // Protegido por el monitor de la propia instancia
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public InMemoryIdempotencyStore(
+            @Value("${frutolandia.idempotency.ttl:24h}") Duration ttl,
+            @Value("${frutolandia.idempotency.max-entries:10000}") int maxEntries) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public synchronized boolean begin(String key, String fingerprint) {
+        purge();
+        if (entries.containsKey(key)) {
+            return false;
+        }
+        entries.put(key, new Entry(fingerprint, null, null, LocalDateTime.now()));
+        if (entries.size() > maxEntries) {
+            Iterator<String> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<Entry> find(String key) {
+        purge();
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    @Override
+    public synchronized void complete(String key, int status, String body) {
+        // Sustituir el valor no cambia la posición de la clave
+        entries.computeIfPresent(key, (k, entry) -> new Entry(entry.fingerprint(), status, body, entry.createdAt()));
+    }
+
+    @Override
+    public synchronized void abort(String key) {
+        entries.remove(key);
+    }
+
+    private void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().createdAt().isBefore(cutoff)) {
+            iterator.remove();
+        }
+    }
+}
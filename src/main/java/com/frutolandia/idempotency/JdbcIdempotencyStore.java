@@ -0,0 +1,127 @@
+package com.frutolandia.idempotency;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Almacén de idempotencia en la tabla {@code idempotency_keys}, compartido
+ * por todos los nodos ({@code frutolandia.idempotency.store=jdbc}).
+ * <p>
+ * La reserva es una inserción: la clave primaria garantiza que solo un
+ * nodo ejecuta la petición. Las sentencias se ejecutan fuera de la
+ * transacción del servicio para que la reserva sea visible de inmediato.
+ * Las entradas caducadas se borran periódicamente.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(name = "frutolandia.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    /** Intervalo entre borrados de entradas caducadas. */
+    private static final long PURGE_INTERVAL_SECONDS = 60;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO idempotency_keys (idempotency_key, fingerprint, created_at) VALUES (?, ?, ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT fingerprint, status, body, created_at FROM idempotency_keys "
+                    + "WHERE idempotency_key = ? AND created_at >= ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_keys SET status = ?, body = ? WHERE idempotency_key = ?";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM idempotency_keys WHERE idempotency_key = ?";
+
+    private static final String DELETE_EXPIRED_KEY_SQL =
+            "DELETE FROM idempotency_keys WHERE idempotency_key = ? AND created_at < ?";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM idempotency_keys WHERE created_at < ?";
+
+    private static final RowMapper<Entry> ENTRY_MAPPER = (rs, rowNum) -> new Entry(
+            rs.getString("fingerprint"),
+            rs.getObject("status", Integer.class),
+            rs.getString("body"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public JdbcIdempotencyStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${frutolandia.idempotency.ttl:24h}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        purger.scheduleWithFixedDelay(this::purge, PURGE_INTERVAL_SECONDS, PURGE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean begin(String key, String fingerprint) {
+        // Una entrada caducada aún no purgada no debe bloquear la clave
+        jdbcTemplate.update(DELETE_EXPIRED_KEY_SQL, key, cutoff());
+        try {
+            jdbcTemplate.update(INSERT_SQL, key, fingerprint, Timestamp.valueOf(LocalDateTime.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<Entry> find(String key) {
+        return jdbcTemplate.query(SELECT_SQL, ENTRY_MAPPER, key, cutoff()).stream().findFirst();
+    }
+
+    @Override
+    public void complete(String key, int status, String body) {
+        jdbcTemplate.update(COMPLETE_SQL, status, body, key);
+    }
+
+    @Override
+    public void abort(String key) {
+        jdbcTemplate.update(DELETE_SQL, key);
+    }
+
+    private void purge() {
+        try {
+            jdbcTemplate.update(PURGE_SQL, cutoff());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Timestamp cutoff() {
+        return Timestamp.valueOf(LocalDateTime.now().minus(ttl));
+    }
+
+    /**
+     * Detiene el borrado periódico al parar la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+}
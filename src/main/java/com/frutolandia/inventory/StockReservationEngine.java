@@ -0,0 +1,509 @@
+package com.frutolandia.inventory;
+
+import com.frutolandia.catalog.ProductCatalog;
+import com.frutolandia.event.ProductChangedEvent;
+import com.frutolandia.event.ProductStockChangedEvent;
+import com.frutolandia.exception.BadRequestException;
+import com.frutolandia.exception.ResourceNotFoundException;
+import com.frutolandia.model.Product;
+import com.frutolandia.repository.ProductRepository;
+import com.frutolandia.util.ChangeVersionGenerator;
+import com.frutolandia.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Motor de reservas de stock para los carritos.
+ * <p>
+ * Cada producto tiene un contador en memoria con las unidades disponibles
+ * (stock en base de datos menos las reservas aún no aplicadas). Reservar y
+ * liberar son operaciones CAS sobre el contador del producto, sin bloqueos
+ * ni accesos a la base de datos, de modo que muchos compradores del mismo
+ * producto no se serializan sobre una fila.
+ * </p>
+ * <p>
+ * Los cambios netos por producto se acumulan y se aplican periódicamente en
+ * un único lote de {@code UPDATE ... WHERE stock_quantity + ? >= 0}, que
+ * también incrementa la versión del producto. Así las ediciones del
+ * administrador, que usan bloqueo optimista, no sobrescriben stock
+ * reservado entretanto. Si la condición falla para un producto (el stock se
+ * redujo fuera del motor), se revocan todas sus reservas y el contador se
+ * resincroniza con la base de datos. Cada lote publica un único
+ * {@link ProductStockChangedEvent} con los productos afectados.
+ * </p>
+ * <p>
+ * Las reservas solo viven en memoria, pero en la misma transacción que
+ * aplica cada lote se acumulan en {@code reserved_stock} las unidades
+ * descontadas del stock por producto. Una parada ordenada libera todas las
+ * reservas y las devuelve al stock; tras una caída, esas unidades se
+ * devuelven al arrancar. En ambos casos los carritos conservan sus líneas
+ * sin reserva, como si hubieran caducado, y vuelven a reservar cuando el
+ * usuario las modifica.
+ * </p>
+ * <p>
+ * Las reservas caducan pasado un tiempo configurable; los vencimientos se
+ * gestionan con una {@link TimingWheel}.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class StockReservationEngine {
+
+    /** Intervalo entre lotes de actualización del stock en base de datos. */
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1, "
+                    + "change_version = ?, updated_at = ? "
+                    + "WHERE id = ? AND stock_quantity + ? >= 0";
+
+    private static final String UPDATE_RESERVED_SQL =
+            "UPDATE reserved_stock SET quantity = quantity + ?, updated_at = ? WHERE product_id = ?";
+
+    private static final String INSERT_RESERVED_SQL =
+            "INSERT INTO reserved_stock (product_id, quantity, updated_at) VALUES (?, ?, ?)";
+
+    private static final String SELECT_RESERVED_SQL =
+            "SELECT product_id, quantity FROM reserved_stock WHERE quantity <> 0";
+
+    private static final String RESTORE_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1, "
+                    + "change_version = ?, updated_at = ? WHERE id = ?";
+
+    private static final String CLEAR_RESERVED_SQL = "DELETE FROM reserved_stock";
+
+    private static final String DELETE_RESERVED_SQL = "DELETE FROM reserved_stock WHERE product_id = ?";
+
+    private final ProductRepository productRepository;
+    private final ProductCatalog productCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration reservationTtl;
+
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Reservation>> reservationsByUser = new ConcurrentHashMap<>();
+    private final TimingWheel expirations = new TimingWheel("stock-reservations", Duration.ofSeconds(1), 512);
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockReservationEngine(
+            ProductRepository productRepository,
+            ProductCatalog productCatalog,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${frutolandia.stock.reservation-ttl:15m}") Duration reservationTtl) {
+        this.productRepository = productRepository;
+        this.productCatalog = productCatalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.reservationTtl = reservationTtl;
+    }
+
+    /**
+     * Devuelve al stock las unidades que quedaron reservadas si el proceso
+     * anterior no se detuvo de forma ordenada, y arranca los lotes periódicos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        restoreReservedStock();
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fija la cantidad reservada por un usuario para un producto.
+     * <p>
+     * Solo se reserva o se libera la diferencia con la reserva vigente, y el
+     * plazo de caducidad se renueva. Si hay una transacción activa y se
+     * deshace, la reserva vuelve a su valor anterior.
+     * </p>
+     *
+     * @param userId ID del usuario
+     * @param productId ID del producto
+     * @param quantity cantidad total a reservar (0 para liberar)
+     * @throws ResourceNotFoundException si el producto no existe
+     * @throws BadRequestException si no hay stock suficiente
+     */
+    public void reserve(Long userId, Long productId, int quantity) {
+        int previous = setReservation(userId, productId, quantity);
+        if (previous != quantity && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        setReservation(userId, productId, previous);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Libera la reserva de un usuario para un producto.
+     *
+     * @param userId ID del usuario
+     * @param productId ID del producto
+     */
+    public void release(Long userId, Long productId) {
+        reserve(userId, productId, 0);
+    }
+
+    /**
+     * Libera todas las reservas de un usuario.
+     *
+     * @param userId ID del usuario
+     */
+    public void releaseAll(Long userId) {
+        Map<Long, Reservation> reservations = reservationsByUser.get(userId);
+        if (reservations != null) {
+            List.copyOf(reservations.keySet()).forEach(productId -> release(userId, productId));
+        }
+    }
+
+    /**
+     * Cantidad reservada actualmente por un usuario para un producto.
+     */
+    public int getReserved(Long userId, Long productId) {
+        Map<Long, Reservation> reservations = reservationsByUser.get(userId);
+        Reservation reservation = reservations == null ? null : reservations.get(productId);
+        return reservation == null ? 0 : reservation.quantity;
+    }
+
+    /**
+     * Unidades disponibles de un producto según el contador en memoria.
+     */
+    public int getAvailable(Long productId) {
+        return counter(productId).state.get().available;
+    }
+
+    private int setReservation(Long userId, Long productId, int quantity) {
+        int[] previous = new int[1];
+        Map<Long, Reservation> reservations = reservationsByUser.computeIfAbsent(userId, id -> new ConcurrentHashMap<>());
+        reservations.compute(productId, (id, current) -> {
+            int held = current == null ? 0 : current.quantity;
+            previous[0] = held;
+            int delta = quantity - held;
+            if (delta > 0) {
+                counter(productId).acquire(delta);
+            } else if (delta < 0) {
+                StockCounter counter = counters.get(productId);
+                if (counter != null) {
+                    counter.release(-delta);
+                }
+            }
+            if (current != null) {
+                current.expiry.cancel();
+            }
+            if (quantity <= 0) {
+                return null;
+            }
+            Reservation reservation = new Reservation(quantity);
+            reservation.expiry = expirations.schedule(() -> expire(userId, productId, reservation), reservationTtl);
+            return reservation;
+        });
+        return previous[0];
+    }
+
+    private void expire(Long userId, Long productId, Reservation reservation) {
+        Map<Long, Reservation> reservations = reservationsByUser.get(userId);
+        if (reservations != null && reservations.remove(productId, reservation)) {
+            StockCounter counter = counters.get(productId);
+            if (counter != null) {
+                counter.release(reservation.quantity);
+            }
+        }
+    }
+
+    private StockCounter counter(Long productId) {
+        return counters.computeIfAbsent(productId, id -> {
+            Product product = productCatalog.snapshot().get(id);
+            if (product == null) {
+                throw new ResourceNotFoundException("Producto", "id", id);
+            }
+            return new StockCounter(stockOf(product), versionOf(product));
+        });
+    }
+
+    /**
+     * Resincroniza el contador cuando un producto cambia en base de datos.
+     * <p>
+     * El nuevo disponible es el stock confirmado más los cambios pendientes
+     * de aplicar. Los eventos con una versión anterior a la conocida se
+     * ignoran.
+     * </p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            counters.remove(event.getProductId());
+            jdbcTemplate.update(DELETE_RESERVED_SQL, event.getProductId());
+            return;
+        }
+        StockCounter counter = counters.get(event.getProductId());
+        if (counter != null) {
+            Product product = event.getProduct();
+            counter.resync(stockOf(product), versionOf(product));
+        }
+    }
+
+    /**
+     * Aplica en un lote los cambios de stock acumulados.
+     * <p>
+     * Si el lote falla, los cambios vuelven a quedar pendientes. Si un
+     * producto no supera la condición de stock, su cambio no se ha aplicado:
+     * se revocan sus reservas y el cambio vuelve a quedar pendiente junto con
+     * las unidades liberadas, que sí estaban descontadas.
+     * </p>
+     */
+    void flush() {
+        List<Long> productIds = new ArrayList<>();
+        List<Integer> deltas = new ArrayList<>();
+        counters.forEach((productId, counter) -> {
+            int delta = counter.drain();
+            if (delta != 0) {
+                productIds.add(productId);
+                deltas.add(delta);
+            }
+        });
+        if (productIds.isEmpty()) {
+            return;
+        }
+        int[] counts;
+        try {
+            counts = write(productIds, deltas);
+        } catch (RuntimeException e) {
+            // Se devuelven los cambios para reintentarlos en el siguiente lote
+            for (int i = 0; i < productIds.size(); i++) {
+                StockCounter counter = counters.get(productIds.get(i));
+                if (counter != null) {
+                    counter.requeue(deltas.get(i));
+                }
+            }
+            e.printStackTrace();
+            return;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                revoke(productIds.get(i));
+                StockCounter counter = counters.get(productIds.get(i));
+                if (counter != null) {
+                    counter.requeue(deltas.get(i));
+                }
+            }
+        }
+        publish(productRepository.findAllById(productIds));
+    }
+
+    /**
+     * Aplica los cambios al stock y a {@code reserved_stock} en una
+     * transacción.
+     *
+     * @return filas actualizadas por producto; 0 si no se cumplió la condición de stock
+     */
+    private int[] write(List<Long> productIds, List<Integer> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return transactionTemplate.execute(status -> {
+            List<Object[]> batch = new ArrayList<>();
+            for (int i = 0; i < productIds.size(); i++) {
+                int delta = deltas.get(i);
+                batch.add(new Object[]{delta, ChangeVersionGenerator.next(), now, productIds.get(i), delta});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch);
+
+            List<Object[]> reserved = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    reserved.add(new Object[]{-deltas.get(i), now, productIds.get(i)});
+                }
+            }
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_RESERVED_SQL, reserved);
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    Object[] row = reserved.get(i);
+                    inserts.add(new Object[]{row[2], row[0], now});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_RESERVED_SQL, inserts);
+            }
+            return counts;
+        });
+    }
+
+    /**
+     * Revoca todas las reservas de un producto devolviendo sus unidades al
+     * contador.
+     */
+    private void revoke(Long productId) {
+        reservationsByUser.values().forEach(reservations -> reservations.computeIfPresent(productId, (id, reservation) -> {
+            reservation.expiry.cancel();
+            StockCounter counter = counters.get(productId);
+            if (counter != null) {
+                counter.release(reservation.quantity);
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Devuelve al stock las unidades de {@code reserved_stock}: al arrancar
+     * no hay ninguna reserva en memoria.
+     */
+    private void restoreReservedStock() {
+        List<Long> productIds = transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Long> restored = new ArrayList<>();
+            List<Object[]> batch = new ArrayList<>();
+            jdbcTemplate.query(SELECT_RESERVED_SQL, rs -> {
+                long productId = rs.getLong("product_id");
+                restored.add(productId);
+                batch.add(new Object[]{rs.getInt("quantity"), ChangeVersionGenerator.next(), now, productId});
+            });
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(RESTORE_STOCK_SQL, batch);
+            }
+            jdbcTemplate.update(CLEAR_RESERVED_SQL);
+            return restored;
+        });
+        if (!productIds.isEmpty()) {
+            publish(productRepository.findAllById(productIds));
+        }
+    }
+
+    /**
+     * Resincroniza los contadores con el stock leído y notifica el lote.
+     */
+    private void publish(List<Product> products) {
+        products.forEach(product -> {
+            StockCounter counter = counters.get(product.getId());
+            if (counter != null) {
+                counter.resync(stockOf(product), versionOf(product));
+            }
+        });
+        eventPublisher.publishEvent(new ProductStockChangedEvent(products));
+    }
+
+    /**
+     * Libera todas las reservas y aplica los cambios pendientes al parar.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        expirations.close();
+        List.copyOf(reservationsByUser.keySet()).forEach(this::releaseAll);
+        flush();
+    }
+
+    private static int stockOf(Product product) {
+        return product.getStockQuantity() == null ? 0 : product.getStockQuantity();
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0 : product.getVersion();
+    }
+
+    /**
+     * Reserva de un usuario sobre un producto.
+     */
+    private static final class Reservation {
+
+        private final int quantity;
+        private TimingWheel.Timeout expiry;
+
+        Reservation(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+
+    /**
+     * Contador de unidades de un producto.
+     * <p>
+     * El estado (disponible, cambio pendiente de aplicar y versión conocida)
+     * es inmutable y se sustituye con CAS.
+     * </p>
+     */
+    private static final class StockCounter {
+
+        private final AtomicReference<State> state;
+
+        StockCounter(int stock, long version) {
+            this.state = new AtomicReference<>(new State(stock, 0, version));
+        }
+
+        void acquire(int quantity) {
+            State current;
+            do {
+                current = state.get();
+                if (current.available < quantity) {
+                    throw new BadRequestException("Stock insuficiente: quedan " + Math.max(current.available, 0) + " unidades");
+                }
+            } while (!state.compareAndSet(current,
+                    new State(current.available - quantity, current.pending - quantity, current.version)));
+        }
+
+        void release(int delta) {
+            state.updateAndGet(current ->
+                    new State(current.available + delta, current.pending + delta, current.version));
+        }
+
+        /**
+         * Vuelve a dejar pendiente un cambio ya descontado de {@code available}
+         * que no llegó a aplicarse.
+         */
+        void requeue(int delta) {
+            state.updateAndGet(current ->
+                    new State(current.available, current.pending + delta, current.version));
+        }
+
+        int drain() {
+            State current;
+            do {
+                current = state.get();
+                if (current.pending == 0) {
+                    return 0;
+                }
+            } while (!state.compareAndSet(current, new State(current.available, 0, current.version)));
+            return current.pending;
+        }
+
+        void resync(int stock, long version) {
+            state.updateAndGet(current -> version < current.version
+                    ? current
+                    : new State(stock + current.pending, current.pending, version));
+        }
+
+        private record State(int available, int pending, long version) {
+        }
+    }
+}
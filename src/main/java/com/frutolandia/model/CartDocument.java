@@ -0,0 +1,54 @@
+package com.frutolandia.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Carrito completo de un usuario en una sola fila.
+ * <p>
+ * Solo se usa con {@code frutolandia.cart.store=document}. Las líneas se
+ * guardan codificadas en binario y la versión permite la concurrencia
+ * optimista entre escrituras del mismo carrito.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "cart_documents")
+public class CartDocument {
+
+    /**
+     * ID del usuario propietario del carrito.
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Líneas del carrito: pares (ID de producto, cantidad) en enteros de
+     * longitud variable.
+     */
+    @Column(name = "line_data", nullable = false, length = 4096)
+    private byte[] lines;
+
+    /**
+     * Versión del carrito; se incrementa en cada escritura.
+     */
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Fecha de la última modificación.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 /**
  * Entidad que representa un ítem del carrito de compras.
  * Asocia un usuario con un producto y su cantidad.
@@ -30,13 +32,24 @@ public class CartItem {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    /**
+     * Producto de la línea. Se carga de forma perezosa: las consultas que lo
+     * necesitan lo traen con un grafo de entidad o un JOIN.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
     @Column(nullable = false)
     private Integer quantity;
 
+    /**
+     * Fecha de la última modificación de la línea. Permite detectar los
+     * carritos abandonados.
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     /**
      * Constructor para crear un nuevo item de carrito.
      */
@@ -45,4 +58,13 @@ public class CartItem {
         this.product = product;
         this.quantity = quantity;
     }
+
+    /**
+     * Registra la fecha de modificación antes de cada escritura.
+     */
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
 }
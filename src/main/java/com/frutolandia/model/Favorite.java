@@ -30,7 +30,11 @@ public class Favorite {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    /**
+     * Producto favorito. Se carga de forma perezosa: las consultas que lo
+     * necesitan lo traen con un grafo de entidad o un JOIN.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
@@ -0,0 +1,59 @@
+package com.frutolandia.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta guardada de una petición con clave de idempotencia.
+ * <p>
+ * Solo se usa con {@code frutolandia.idempotency.store=jdbc}, para que
+ * varios nodos compartan las claves.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+public class IdempotencyRecord {
+
+    /**
+     * Clave, resumida junto con el usuario que la envió.
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String key;
+
+    /**
+     * Huella de la operación y del cuerpo de la petición.
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    /**
+     * Código HTTP de la respuesta; {@code null} mientras se ejecuta.
+     */
+    private Integer status;
+
+    /**
+     * Cuerpo de la respuesta en JSON.
+     */
+    @Lob
+    private String body;
+
+    /**
+     * Fecha de la reserva de la clave.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,10 +1,15 @@
 package com.frutolandia.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.frutolandia.util.ChangeVersionGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDateTime;
 
 /**
  * Entidad que representa un producto en el sistema Frutolandia.
@@ -13,6 +18,11 @@ import lombok.NoArgsConstructor;
  * ingredientes, descripción y cantidad en stock. Incluye validaciones
  * para garantizar la integridad de los datos.
  * </p>
+ * <p>
+ * Los productos referenciados de forma perezosa (líneas del carrito,
+ * favoritos) que no se hayan traído en la consulta se inicializan en lotes
+ * de hasta 50, no uno a uno.
+ * </p>
  *
  * @author Frutolandia Team
  * @version 1.0
@@ -22,14 +32,23 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "products")
+@BatchSize(size = 50)
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_change_version", columnList = "change_version")
+})
 public class Product {
 
     /**
      * Identificador único del producto.
+     * <p>
+     * Se genera con una secuencia en bloques de 50 (optimizador pooled) para
+     * que Hibernate pueda agrupar los INSERT en lotes JDBC. El valor inicial
+     * deja libres los IDs usados por data.sql.
+     * </p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "products_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
     /**
@@ -83,4 +102,45 @@ public class Product {
     @Min(value = 0, message = "La cantidad en stock no puede ser negativa")
     @Column(name = "stock_quantity")
     private Integer stockQuantity;
+
+    /**
+     * Versión para el bloqueo optimista.
+     * <p>
+     * Se incrementa en cada modificación, incluidas las actualizaciones de
+     * stock que aplica el motor de reservas.
+     * </p>
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    /**
+     * Versión del último cambio del producto.
+     * <p>
+     * Se asigna automáticamente al crear o modificar el producto y permite
+     * a los clientes pedir solo los cambios posteriores a una versión.
+     * </p>
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    /**
+     * Fecha y hora de la última modificación.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Asigna la versión de cambio y la fecha de modificación antes de cada
+     * INSERT o UPDATE.
+     */
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        changeVersion = ChangeVersionGenerator.next();
+        updatedAt = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,52 @@
+package com.frutolandia.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contadores de popularidad de un producto.
+ * <p>
+ * Los mantiene {@link com.frutolandia.popularity.PopularityTracker}, que
+ * acumula los cambios en memoria y los vuelca periódicamente en un lote.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_stats")
+public class ProductStats {
+
+    /**
+     * ID del producto.
+     */
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    /**
+     * Usuarios que tienen el producto en favoritos.
+     */
+    @Column(name = "favorite_count", nullable = false)
+    private Long favoriteCount;
+
+    /**
+     * Veces que el producto se ha añadido a un carrito en el que no estaba.
+     */
+    @Column(name = "cart_add_count", nullable = false)
+    private Long cartAddCount;
+
+    /**
+     * Fecha del último volcado.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
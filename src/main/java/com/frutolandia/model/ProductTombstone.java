@@ -0,0 +1,48 @@
+package com.frutolandia.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de un producto eliminado.
+ * <p>
+ * Permite informar de las bajas a los clientes que sincronizan el catálogo
+ * de forma incremental a partir de una versión.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_tombstones", indexes = {
+    @Index(name = "idx_product_tombstones_change_version", columnList = "change_version")
+})
+public class ProductTombstone {
+
+    /**
+     * ID del producto eliminado.
+     */
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    /**
+     * Versión de cambio asignada a la eliminación.
+     */
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+
+    /**
+     * Fecha y hora de la eliminación.
+     */
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
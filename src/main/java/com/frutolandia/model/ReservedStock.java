@@ -0,0 +1,48 @@
+package com.frutolandia.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Unidades de un producto descontadas de {@code products.stock_quantity}
+ * por reservas de carrito.
+ * <p>
+ * Las mantiene {@link com.frutolandia.inventory.StockReservationEngine} en la
+ * misma transacción que aplica cada lote al stock, de modo que tras una
+ * caída se sabe cuántas unidades hay que devolver al arrancar.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "reserved_stock")
+public class ReservedStock {
+
+    /**
+     * ID del producto.
+     */
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    /**
+     * Unidades reservadas ya descontadas del stock.
+     */
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    /**
+     * Fecha del último lote aplicado.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,336 @@
+package com.frutolandia.popularity;
+
+import com.frutolandia.catalog.CatalogSnapshot;
+import com.frutolandia.catalog.ProductCatalog;
+import com.frutolandia.dto.PopularProduct;
+import com.frutolandia.event.ProductChangedEvent;
+import com.frutolandia.exception.BadRequestException;
+import com.frutolandia.model.Product;
+import com.frutolandia.util.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de popularidad de los productos.
+ * <p>
+ * Altas y bajas de favoritos y productos añadidos al carrito incrementan,
+ * tras el commit, contadores {@link LongAdder} por producto, sin bloqueos.
+ * Cada {@code frutolandia.popularity.flush-interval} un hilo aparte vuelca
+ * los incrementos pendientes a {@code product_stats} en un único lote y
+ * recalcula los rankings: los {@code frutolandia.popularity.top-size}
+ * productos con el contador más alto, seleccionados con un montículo de ese
+ * tamaño. Leer un ranking solo recorre la lista ya ordenada.
+ * </p>
+ * <p>
+ * En el primer arranque, con {@code product_stats} vacía, los favoritos
+ * existentes se cuentan una vez desde {@code favorites}. Los productos
+ * añadidos al carrito se cuentan desde entonces.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class PopularityTracker {
+
+    /**
+     * Contador por el que se ordena un ranking.
+     */
+    public enum Metric {
+        /** Usuarios que tienen el producto en favoritos. */
+        FAVORITES,
+        /** Veces que el producto se ha añadido a un carrito en el que no estaba. */
+        CART_ADDS
+    }
+
+    private static final String SELECT_STATS_SQL =
+            "SELECT product_id, favorite_count, cart_add_count FROM product_stats";
+
+    private static final String COUNT_FAVORITES_SQL =
+            "SELECT product_id, COUNT(*) AS favorite_count FROM favorites GROUP BY product_id";
+
+    private static final String UPDATE_SQL =
+            "UPDATE product_stats SET favorite_count = favorite_count + ?, cart_add_count = cart_add_count + ?, "
+                    + "updated_at = ? WHERE product_id = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_stats (product_id, favorite_count, cart_add_count, updated_at) VALUES (?, ?, ?, ?)";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM product_stats WHERE product_id = ?";
+
+    /** Orden de los montículos: en la cabeza, el producto que antes sale del ranking. */
+    private static final Comparator<Ranked> WORST_FIRST = Comparator.comparingLong(Ranked::count)
+            .thenComparing(Ranked::productId, Comparator.reverseOrder());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCatalog productCatalog;
+    private final Duration flushInterval;
+    private final int topSize;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+    private volatile Map<Metric, List<Ranked>> rankings = emptyRankings();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "popularity-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PopularityTracker(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ProductCatalog productCatalog,
+            @Value("${frutolandia.popularity.flush-interval:10s}") Duration flushInterval,
+            @Value("${frutolandia.popularity.top-size:100}") int topSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCatalog = productCatalog;
+        this.flushInterval = flushInterval;
+        this.topSize = topSize;
+    }
+
+    /**
+     * Carga los contadores guardados y arranca el volcado periódico.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<long[]> stats = jdbcTemplate.query(SELECT_STATS_SQL, (rs, rowNum) -> new long[]{
+                rs.getLong("product_id"), rs.getLong("favorite_count"), rs.getLong("cart_add_count")});
+        if (stats.isEmpty()) {
+            jdbcTemplate.query(COUNT_FAVORITES_SQL, rs -> {
+                counters(rs.getLong("product_id")).add(rs.getLong("favorite_count"), 0);
+            });
+        }
+        stats.forEach(row -> counters(row[0]).load(row[1], row[2]));
+        refreshRankings();
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cuenta un producto añadido a favoritos tras el commit.
+     */
+    public void favoriteAdded(Long productId) {
+        AfterCommit.run(() -> counters(productId).add(1, 0));
+    }
+
+    /**
+     * Descuenta un producto quitado de favoritos tras el commit.
+     */
+    public void favoriteRemoved(Long productId) {
+        AfterCommit.run(() -> counters(productId).add(-1, 0));
+    }
+
+    /**
+     * Cuenta un producto añadido a un carrito en el que no estaba, tras el commit.
+     */
+    public void addedToCart(Long productId) {
+        AfterCommit.run(() -> counters(productId).add(0, 1));
+    }
+
+    /**
+     * Devuelve los productos más populares según un contador.
+     * <p>
+     * El ranking se recalcula en cada volcado, de modo que refleja los
+     * cambios con un retraso de como mucho
+     * {@code frutolandia.popularity.flush-interval}.
+     * </p>
+     *
+     * @param metric contador por el que se ordena
+     * @param limit número de productos (entre 1 y {@code top-size})
+     * @return los productos de mayor a menor contador
+     * @throws BadRequestException si el límite no es válido
+     */
+    public List<PopularProduct> top(Metric metric, int limit) {
+        if (limit < 1 || limit > topSize) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + topSize);
+        }
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        List<PopularProduct> result = new ArrayList<>(limit);
+        for (Ranked ranked : rankings.get(metric)) {
+            if (result.size() == limit) {
+                break;
+            }
+            Product product = snapshot.get(ranked.productId());
+            if (product != null) {
+                result.add(new PopularProduct(product.getId(), product.getName(), product.getPrice(), ranked.count()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Descarta los contadores de los productos eliminados.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            counters.remove(event.getProductId());
+            jdbcTemplate.update(DELETE_SQL, event.getProductId());
+        }
+    }
+
+    /**
+     * Vuelca los incrementos pendientes en un lote y recalcula los rankings.
+     * Si el volcado falla, los incrementos se conservan para el siguiente.
+     */
+    void flush() {
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        List<Delta> deltas = new ArrayList<>();
+        counters.forEach((productId, counter) -> {
+            if (snapshot.get(productId) != null) {
+                Delta delta = counter.drain(productId);
+                if (delta != null) {
+                    deltas.add(delta);
+                }
+            }
+        });
+        if (!deltas.isEmpty()) {
+            try {
+                write(deltas);
+            } catch (RuntimeException e) {
+                deltas.forEach(delta -> counters(delta.productId()).pend(delta.favorites(), delta.cartAdds()));
+                e.printStackTrace();
+            }
+        }
+        refreshRankings();
+    }
+
+    private void write(List<Delta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, deltas.stream()
+                    .map(delta -> new Object[]{delta.favorites(), delta.cartAdds(), now, delta.productId()})
+                    .toList());
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    Delta delta = deltas.get(i);
+                    inserts.add(new Object[]{delta.productId(), delta.favorites(), delta.cartAdds(), now});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            }
+        });
+    }
+
+    private void refreshRankings() {
+        Map<Metric, List<Ranked>> refreshed = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            PriorityQueue<Ranked> heap = new PriorityQueue<>(topSize + 1, WORST_FIRST);
+            counters.forEach((productId, counter) -> {
+                long count = counter.get(metric);
+                if (count > 0) {
+                    heap.add(new Ranked(productId, count));
+                    if (heap.size() > topSize) {
+                        heap.poll();
+                    }
+                }
+            });
+            List<Ranked> ranking = new ArrayList<>(heap);
+            ranking.sort(WORST_FIRST.reversed());
+            refreshed.put(metric, List.copyOf(ranking));
+        }
+        rankings = refreshed;
+    }
+
+    private Counters counters(Long productId) {
+        Counters counter = counters.get(productId);
+        return counter != null ? counter : counters.computeIfAbsent(productId, id -> new Counters());
+    }
+
+    private static Map<Metric, List<Ranked>> emptyRankings() {
+        Map<Metric, List<Ranked>> empty = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            empty.put(metric, List.of());
+        }
+        return empty;
+    }
+
+
+    /**
+     * Vuelca los incrementos pendientes y detiene el hilo al parar la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    /**
+     * Contadores de un producto: el total y lo pendiente de volcar.
+     */
+    private static final class Counters {
+
+        private final LongAdder favorites = new LongAdder();
+        private final LongAdder cartAdds = new LongAdder();
+        private final LongAdder pendingFavorites = new LongAdder();
+        private final LongAdder pendingCartAdds = new LongAdder();
+
+        void load(long favoriteCount, long cartAddCount) {
+            favorites.add(favoriteCount);
+            cartAdds.add(cartAddCount);
+        }
+
+        void add(long favoriteDelta, long cartAddDelta) {
+            load(favoriteDelta, cartAddDelta);
+            pend(favoriteDelta, cartAddDelta);
+        }
+
+        void pend(long favoriteDelta, long cartAddDelta) {
+            if (favoriteDelta != 0) {
+                pendingFavorites.add(favoriteDelta);
+            }
+            if (cartAddDelta != 0) {
+                pendingCartAdds.add(cartAddDelta);
+            }
+        }
+
+        Delta drain(Long productId) {
+            long favoriteDelta = pendingFavorites.sumThenReset();
+            long cartAddDelta = pendingCartAdds.sumThenReset();
+            return favoriteDelta == 0 && cartAddDelta == 0 ? null : new Delta(productId, favoriteDelta, cartAddDelta);
+        }
+
+        long get(Metric metric) {
+            return metric == Metric.FAVORITES ? favorites.sum() : cartAdds.sum();
+        }
+    }
+
+    /**
+     * Incrementos de un producto pendientes de volcar.
+     */
+    private record Delta(Long productId, long favorites, long cartAdds) {
+    }
+
+    /**
+     * Posición de un producto en un ranking.
+     */
+    private record Ranked(Long productId, long count) {
+    }
+}
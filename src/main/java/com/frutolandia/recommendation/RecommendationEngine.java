@@ -0,0 +1,473 @@
+package com.frutolandia.recommendation;
+
+import com.frutolandia.cart.CartStore;
+import com.frutolandia.catalog.CatalogSnapshot;
+import com.frutolandia.catalog.ProductCatalog;
+import com.frutolandia.dto.RelatedProduct;
+import com.frutolandia.event.ProductChangedEvent;
+import com.frutolandia.exception.BadRequestException;
+import com.frutolandia.model.Product;
+import com.frutolandia.repository.CartItemRepositoryCustom.UserCartLine;
+import com.frutolandia.util.AfterCommit;
+import com.frutolandia.util.LongIntHashMap;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recomendaciones «otros también añadieron» a partir de la coincidencia de
+ * productos en los favoritos y en los carritos de los usuarios.
+ * <p>
+ * La matriz de coincidencias es dispersa: por cada producto, un
+ * {@link LongIntHashMap} con el número de favoritos y carritos en los que
+ * aparece junto a cada otro producto. Los cambios de favoritos y carritos
+ * llegan tras el commit y se aplican en un único hilo, que mantiene también
+ * el contenido de cada favorito y carrito para que repetir un cambio no
+ * cuente dos veces. Después se recalculan los {@code frutolandia.recommendation.top-k}
+ * vecinos de los productos afectados y se publican ya ordenados, de modo
+ * que leerlos no consulta la base de datos.
+ * </p>
+ * <p>
+ * Cada {@code frutolandia.recommendation.rebuild-interval} la matriz se
+ * reconstruye desde {@code favorites} y el almacenamiento del carrito,
+ * repartiendo los usuarios entre los hilos del {@link ForkJoinPool} común.
+ * Los cambios que llegan mientras tanto esperan en la cola del hilo y se
+ * aplican sobre la matriz nueva.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+public class RecommendationEngine {
+
+    /** Usuarios por tarea de la reconstrucción. */
+    private static final int USERS_PER_TASK = 256;
+
+    private static final long[] EMPTY = new long[0];
+
+    private static final String SELECT_FAVORITES_SQL =
+            "SELECT user_id, product_id FROM favorites";
+
+    /** Orden de los montículos: en la cabeza, el vecino que antes sale de la lista. */
+    private static final Comparator<Neighbor> WORST_FIRST = Comparator.comparingInt(Neighbor::score)
+            .thenComparing(Neighbor::productId, Comparator.reverseOrder());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CartStore cartStore;
+    private final ProductCatalog productCatalog;
+    private final Duration rebuildInterval;
+    private final int topK;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recommendations");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Estado del hilo de recomendaciones
+    private Map<Long, long[]> favorites = new HashMap<>();
+    private Map<Long, long[]> carts = new HashMap<>();
+    private Map<Long, LongIntHashMap> matrix = new HashMap<>();
+    private final Set<Long> dirty = new HashSet<>();
+    private boolean refreshScheduled;
+
+    private volatile Map<Long, Neighbors> related = new ConcurrentHashMap<>();
+
+    public RecommendationEngine(
+            JdbcTemplate jdbcTemplate,
+            CartStore cartStore,
+            ProductCatalog productCatalog,
+            @Value("${frutolandia.recommendation.rebuild-interval:1h}") Duration rebuildInterval,
+            @Value("${frutolandia.recommendation.top-k:20}") int topK) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cartStore = cartStore;
+        this.productCatalog = productCatalog;
+        this.rebuildInterval = rebuildInterval;
+        this.topK = topK;
+    }
+
+    /**
+     * Construye la matriz al arrancar y programa las reconstrucciones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = rebuildInterval.toMillis();
+        worker.scheduleWithFixedDelay(this::rebuild, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Devuelve los productos que más coinciden con uno dado.
+     *
+     * @param productId ID del producto
+     * @param limit número de productos (entre 1 y {@code top-k})
+     * @return los productos de mayor a menor coincidencia
+     * @throws BadRequestException si el límite no es válido
+     */
+    public List<RelatedProduct> related(Long productId, int limit) {
+        if (limit < 1 || limit > topK) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + topK);
+        }
+        Neighbors neighbors = related.get(productId);
+        if (neighbors == null) {
+            return List.of();
+        }
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        List<RelatedProduct> result = new ArrayList<>(limit);
+        for (int i = 0; i < neighbors.productIds().length && result.size() < limit; i++) {
+            Product product = snapshot.get(neighbors.productIds()[i]);
+            if (product != null) {
+                result.add(new RelatedProduct(product.getId(), product.getName(), product.getPrice(),
+                        neighbors.scores()[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Anota un producto añadido a favoritos.
+     */
+    public void favoriteAdded(Long userId, Long productId) {
+        submit(() -> add(favorites, userId, productId));
+    }
+
+    /**
+     * Anota un producto quitado de favoritos.
+     */
+    public void favoriteRemoved(Long userId, Long productId) {
+        submit(() -> remove(favorites, userId, productId));
+    }
+
+    /**
+     * Anota un producto presente en el carrito de un usuario.
+     */
+    public void cartLineAdded(Long userId, Long productId) {
+        submit(() -> add(carts, userId, productId));
+    }
+
+    /**
+     * Anota un producto quitado del carrito de un usuario.
+     */
+    public void cartLineRemoved(Long userId, Long productId) {
+        submit(() -> remove(carts, userId, productId));
+    }
+
+    /**
+     * Anota el contenido completo del carrito de un usuario.
+     */
+    public void cartReplaced(Long userId, Collection<Long> productIds) {
+        long[] target = productIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        submit(() -> replace(carts, userId, target));
+    }
+
+    /**
+     * Anota un carrito vaciado.
+     */
+    public void cartCleared(Long userId) {
+        submit(() -> replace(carts, userId, EMPTY));
+    }
+
+    /**
+     * Olvida los favoritos y el carrito de un usuario eliminado.
+     */
+    public void userRemoved(Long userId) {
+        submit(() -> {
+            replace(favorites, userId, EMPTY);
+            replace(carts, userId, EMPTY);
+        });
+    }
+
+    /**
+     * Quita los productos eliminados de la matriz y de las recomendaciones.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.isDeleted()) {
+            return;
+        }
+        long productId = event.getProductId();
+        worker.execute(() -> {
+            favorites.replaceAll((userId, basket) -> without(basket, productId));
+            carts.replaceAll((userId, basket) -> without(basket, productId));
+            LongIntHashMap row = matrix.remove(productId);
+            if (row != null) {
+                row.forEach((other, score) -> {
+                    LongIntHashMap otherRow = matrix.get(other);
+                    otherRow.remove(productId);
+                    if (otherRow.isEmpty()) {
+                        matrix.remove(other);
+                    }
+                    markDirty(other);
+                });
+            }
+            related.remove(productId);
+        });
+    }
+
+    /**
+     * Reconstruye la matriz completa y todas las recomendaciones.
+     */
+    void rebuild() {
+        try {
+            Map<Long, long[]> favoriteBaskets = baskets(jdbcTemplate.query(SELECT_FAVORITES_SQL,
+                    (rs, rowNum) -> new long[]{rs.getLong("user_id"), rs.getLong("product_id")}));
+            Map<Long, long[]> cartBaskets = baskets(cartStore.findAllLines().stream()
+                    .map(line -> new long[]{line.userId(), line.productId()})
+                    .toList());
+
+            List<long[]> all = new ArrayList<>(favoriteBaskets.values());
+            all.addAll(cartBaskets.values());
+            Map<Long, LongIntHashMap> rebuilt = ForkJoinPool.commonPool()
+                    .invoke(new CooccurrenceTask(all.toArray(long[][]::new), 0, all.size()));
+            Map<Long, Neighbors> neighbors = new ConcurrentHashMap<>();
+            ForkJoinPool.commonPool().submit(() -> rebuilt.entrySet().parallelStream()
+                    .forEach(entry -> neighbors.put(entry.getKey(), topNeighbors(entry.getValue()))))
+                    .join();
+
+            favorites = favoriteBaskets;
+            carts = cartBaskets;
+            matrix = rebuilt;
+            dirty.clear();
+            related = neighbors;
+        } catch (RuntimeException e) {
+            // Se mantiene la matriz actual hasta la siguiente reconstrucción
+            e.printStackTrace();
+        }
+    }
+
+    private void add(Map<Long, long[]> baskets, Long userId, long productId) {
+        long[] basket = baskets.getOrDefault(userId, EMPTY);
+        if (Arrays.binarySearch(basket, productId) >= 0) {
+            return;
+        }
+        for (long other : basket) {
+            link(productId, other, 1);
+        }
+        baskets.put(userId, with(basket, productId));
+    }
+
+    private void remove(Map<Long, long[]> baskets, Long userId, long productId) {
+        long[] basket = baskets.getOrDefault(userId, EMPTY);
+        if (Arrays.binarySearch(basket, productId) < 0) {
+            return;
+        }
+        long[] remaining = without(basket, productId);
+        for (long other : remaining) {
+            link(productId, other, -1);
+        }
+        if (remaining.length == 0) {
+            baskets.remove(userId);
+        } else {
+            baskets.put(userId, remaining);
+        }
+    }
+
+    private void replace(Map<Long, long[]> baskets, Long userId, long[] target) {
+        long[] current = baskets.getOrDefault(userId, EMPTY);
+        for (long productId : current) {
+            if (Arrays.binarySearch(target, productId) < 0) {
+                remove(baskets, userId, productId);
+            }
+        }
+        for (long productId : target) {
+            add(baskets, userId, productId);
+        }
+    }
+
+    private void link(long productId, long other, int delta) {
+        addTo(productId, other, delta);
+        addTo(other, productId, delta);
+    }
+
+    private void addTo(long productId, long other, int delta) {
+        LongIntHashMap row = matrix.computeIfAbsent(productId, id -> new LongIntHashMap());
+        row.addTo(other, delta);
+        if (row.isEmpty()) {
+            matrix.remove(productId);
+        }
+        markDirty(productId);
+    }
+
+    /**
+     * Marca un producto para recalcular sus vecinos. El recálculo se hace
+     * una vez por producto tras los cambios que ya estén en cola.
+     */
+    private void markDirty(long productId) {
+        dirty.add(productId);
+        if (!refreshScheduled) {
+            refreshScheduled = true;
+            worker.execute(this::refreshDirty);
+        }
+    }
+
+    private void refreshDirty() {
+        refreshScheduled = false;
+        Map<Long, Neighbors> current = related;
+        for (Long productId : dirty) {
+            LongIntHashMap row = matrix.get(productId);
+            if (row == null) {
+                current.remove(productId);
+            } else {
+                current.put(productId, topNeighbors(row));
+            }
+        }
+        dirty.clear();
+    }
+
+    private Neighbors topNeighbors(LongIntHashMap row) {
+        PriorityQueue<Neighbor> heap = new PriorityQueue<>(topK + 1, WORST_FIRST);
+        row.forEach((productId, score) -> {
+            if (score > 0) {
+                heap.add(new Neighbor(productId, score));
+                if (heap.size() > topK) {
+                    heap.poll();
+                }
+            }
+        });
+        int size = heap.size();
+        long[] productIds = new long[size];
+        int[] scores = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            Neighbor neighbor = heap.poll();
+            productIds[i] = neighbor.productId();
+            scores[i] = neighbor.score();
+        }
+        return new Neighbors(productIds, scores);
+    }
+
+    private void submit(Runnable change) {
+        AfterCommit.run(() -> worker.execute(change));
+    }
+
+    /**
+     * Agrupa pares (usuario, producto) en arrays ordenados por usuario.
+     */
+    private static Map<Long, long[]> baskets(List<long[]> pairs) {
+        Map<Long, List<Long>> grouped = new HashMap<>();
+        pairs.forEach(pair -> grouped.computeIfAbsent(pair[0], id -> new ArrayList<>()).add(pair[1]));
+        Map<Long, long[]> baskets = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((userId, productIds) -> baskets.put(userId,
+                productIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray()));
+        return baskets;
+    }
+
+    private static long[] with(long[] basket, long productId) {
+        int index = Arrays.binarySearch(basket, productId);
+        if (index >= 0) {
+            return basket;
+        }
+        int insertAt = -index - 1;
+        long[] result = new long[basket.length + 1];
+        System.arraycopy(basket, 0, result, 0, insertAt);
+        result[insertAt] = productId;
+        System.arraycopy(basket, insertAt, result, insertAt + 1, basket.length - insertAt);
+        return result;
+    }
+
+    private static long[] without(long[] basket, long productId) {
+        int index = Arrays.binarySearch(basket, productId);
+        if (index < 0) {
+            return basket;
+        }
+        long[] result = new long[basket.length - 1];
+        System.arraycopy(basket, 0, result, 0, index);
+        System.arraycopy(basket, index + 1, result, index, basket.length - index - 1);
+        return result;
+    }
+
+    /**
+     * Detiene el hilo de recomendaciones al parar la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Cuenta las coincidencias de un tramo de favoritos y carritos,
+     * dividiéndolo mientras sea mayor que {@link #USERS_PER_TASK}.
+     */
+    private static final class CooccurrenceTask extends RecursiveTask<Map<Long, LongIntHashMap>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[][] baskets;
+        private final int from;
+        private final int to;
+
+        CooccurrenceTask(long[][] baskets, int from, int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, LongIntHashMap> compute() {
+            if (to - from <= USERS_PER_TASK) {
+                Map<Long, LongIntHashMap> rows = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    long[] basket = baskets[i];
+                    for (long productId : basket) {
+                        for (long other : basket) {
+                            if (other != productId) {
+                                rows.computeIfAbsent(productId, id -> new LongIntHashMap()).addTo(other, 1);
+                            }
+                        }
+                    }
+                }
+                return rows;
+            }
+            int middle = (from + to) >>> 1;
+            CooccurrenceTask left = new CooccurrenceTask(baskets, from, middle);
+            left.fork();
+            Map<Long, LongIntHashMap> right = new CooccurrenceTask(baskets, middle, to).compute();
+            return merge(left.join(), right);
+        }
+
+        private static Map<Long, LongIntHashMap> merge(Map<Long, LongIntHashMap> a, Map<Long, LongIntHashMap> b) {
+            Map<Long, LongIntHashMap> target = a.size() >= b.size() ? a : b;
+            Map<Long, LongIntHashMap> source = target == a ? b : a;
+            source.forEach((productId, row) -> {
+                LongIntHashMap existing = target.get(productId);
+                if (existing == null) {
+                    target.put(productId, row);
+                } else {
+                    existing.addAll(row);
+                }
+            });
+            return target;
+        }
+    }
+
+    /**
+     * Vecinos de un producto, de mayor a menor coincidencia.
+     */
+    private record Neighbors(long[] productIds, int[] scores) {
+    }
+
+    private record Neighbor(long productId, int score) {
+    }
+}
@@ -2,9 +2,11 @@ package com.frutolandia.repository;
 
 import com.frutolandia.model.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,12 +17,7 @@ import java.util.Optional;
  * @since 2025-12-08
  */
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
-    
-    /**
-     * Encuentra todos los ítems del carrito de un usuario.
-     */
-    List<CartItem> findByUserId(Long userId);
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemRepositoryCustom {
     
     /**
      * Encuentra un ítem específico del carrito por usuario y producto.
@@ -28,17 +25,25 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
     
     /**
-     * Elimina todos los ítems del carrito de un usuario.
+     * Elimina todos los ítems del carrito de un usuario en una sola sentencia,
+     * sin cargar las entidades.
      */
-    void deleteByUserId(Long userId);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CartItem c WHERE c.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
     
     /**
-     * Elimina todos los ítems del carrito de un producto.
+     * Elimina todos los ítems del carrito de un producto en una sola sentencia,
+     * sin cargar las entidades.
      */
-    void deleteByProductId(Long productId);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CartItem c WHERE c.product.id = :productId")
+    void deleteByProductId(@Param("productId") Long productId);
     
     /**
      * Elimina un ítem específico del carrito.
      */
-    void deleteByUserIdAndProductId(Long userId, Long productId);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CartItem c WHERE c.user.id = :userId AND c.product.id = :productId")
+    void deleteByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
 }
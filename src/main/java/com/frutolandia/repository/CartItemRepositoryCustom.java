@@ -0,0 +1,141 @@
+package com.frutolandia.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones del repositorio de carrito implementadas con SQL nativo.
+ * <p>
+ * Todas las escrituras actualizan la fecha de última modificación de la
+ * línea ({@code updated_at}), que usa el barrido de carritos abandonados.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public interface CartItemRepositoryCustom {
+
+    /**
+     * Suma una cantidad al ítem del carrito de un usuario, creándolo si no
+     * existe, en una única sentencia atómica.
+     *
+     * @param userId ID del usuario
+     * @param productId ID del producto
+     * @param quantity cantidad a sumar
+     * @return ID del ítem y cantidad resultante
+     */
+    CartItemQuantity addQuantity(Long userId, Long productId, int quantity);
+
+    /**
+     * Obtiene las líneas del carrito de un usuario sin cargar las entidades.
+     *
+     * @param userId ID del usuario
+     * @return líneas del carrito ordenadas por ID
+     */
+    List<CartLine> findLinesByUserId(Long userId);
+
+    /**
+     * Inserta líneas en el carrito de un usuario en un lote JDBC.
+     *
+     * @param userId ID del usuario
+     * @param quantitiesByProduct cantidad por ID de producto
+     */
+    void batchInsert(Long userId, Map<Long, Integer> quantitiesByProduct);
+
+    /**
+     * Actualiza la cantidad de varias líneas en un lote JDBC.
+     *
+     * @param items ID de cada línea y su nueva cantidad
+     */
+    void batchUpdateQuantities(List<CartItemQuantity> items);
+
+    /**
+     * Elimina varias líneas en un lote JDBC.
+     *
+     * @param ids IDs de las líneas
+     */
+    void batchDelete(List<Long> ids);
+
+    /**
+     * Fija la cantidad de varias líneas de cualquier usuario en un lote JDBC,
+     * creándolas si no existen.
+     *
+     * @param lines líneas con su cantidad final (mayor que cero)
+     * @param touchedAt fecha de modificación que se registra en las líneas
+     */
+    void batchSetQuantities(List<UserCartLine> lines, LocalDateTime touchedAt);
+
+    /**
+     * Elimina varias líneas de cualquier usuario en un lote JDBC.
+     *
+     * @param lines líneas a eliminar (se ignora la cantidad)
+     */
+    void batchDeleteLines(List<UserCartLine> lines);
+
+    /**
+     * Obtiene la última modificación del carrito de cada usuario que tiene
+     * líneas.
+     *
+     * @return actividad por usuario; la fecha es {@code null} si ninguna
+     *         línea la tiene registrada
+     */
+    List<CartActivity> findLastActivityByUser();
+
+    /**
+     * Obtiene las líneas de todos los carritos, ordenadas por usuario.
+     *
+     * @return líneas de todos los usuarios
+     */
+    List<UserCartLine> findAllLines();
+
+    /**
+     * Elimina en un lote JDBC las líneas de varios usuarios que no se han
+     * modificado desde la fecha indicada.
+     *
+     * @param userIds IDs de los usuarios
+     * @param cutoff se eliminan las líneas modificadas antes de esta fecha
+     *               o sin fecha registrada
+     * @return número de líneas eliminadas
+     */
+    int deleteIdleLines(List<Long> userIds, LocalDateTime cutoff);
+
+    /**
+     * ID y cantidad de un ítem del carrito tras una modificación.
+     *
+     * @param id ID del ítem
+     * @param quantity cantidad resultante
+     */
+    record CartItemQuantity(Long id, Integer quantity) {
+    }
+
+    /**
+     * Línea del carrito sin la entidad del producto.
+     *
+     * @param id ID del ítem
+     * @param productId ID del producto
+     * @param quantity cantidad
+     */
+    record CartLine(Long id, Long productId, Integer quantity) {
+    }
+
+    /**
+     * Línea del carrito identificada por usuario y producto.
+     *
+     * @param userId ID del usuario
+     * @param productId ID del producto
+     * @param quantity cantidad
+     */
+    record UserCartLine(Long userId, Long productId, Integer quantity) {
+    }
+
+    /**
+     * Última modificación del carrito de un usuario.
+     *
+     * @param userId ID del usuario
+     * @param lastUpdated fecha de la línea modificada más recientemente
+     */
+    record CartActivity(Long userId, LocalDateTime lastUpdated) {
+    }
+}
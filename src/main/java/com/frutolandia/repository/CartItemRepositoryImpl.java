@@ -0,0 +1,225 @@
+package com.frutolandia.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Implementación de {@link CartItemRepositoryCustom}.
+ * <p>
+ * El upsert se hace con la sentencia nativa del motor: {@code MERGE} sobre
+ * una tabla delta {@code FINAL TABLE} en H2, que devuelve el ID y la
+ * cantidad en el mismo viaje, e {@code INSERT ... ON DUPLICATE KEY UPDATE}
+ * en MySQL, seguido de la lectura de la fila en la misma transacción. En
+ * MySQL no hay forma de devolver desde el upsert a la vez el ID y la
+ * cantidad resultante ({@code LAST_INSERT_ID(expr)} solo transporta un
+ * valor), así que son dos viajes; la fila queda bloqueada por el upsert
+ * hasta el commit y la lectura ve la cantidad que dejó.
+ * </p>
+ * <p>
+ * La fecha de modificación se toma del reloj de la aplicación, igual que
+ * en las entidades, para que sea comparable con la del barrido.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public class CartItemRepositoryImpl implements CartItemRepositoryCustom {
+
+    private static final String H2_UPSERT_SQL =
+            "SELECT id, quantity FROM FINAL TABLE ("
+                    + "MERGE INTO cart_items t "
+                    + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS INT), CAST(? AS TIMESTAMP))) "
+                    + "s(user_id, product_id, quantity, updated_at) "
+                    + "ON t.user_id = s.user_id AND t.product_id = s.product_id "
+                    + "WHEN MATCHED THEN UPDATE SET quantity = t.quantity + s.quantity, updated_at = s.updated_at "
+                    + "WHEN NOT MATCHED THEN INSERT (user_id, product_id, quantity, updated_at) "
+                    + "VALUES (s.user_id, s.product_id, s.quantity, s.updated_at))";
+
+    private static final String MYSQL_UPSERT_SQL =
+            "INSERT INTO cart_items (user_id, product_id, quantity, updated_at) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), updated_at = VALUES(updated_at)";
+
+    private static final String H2_SET_SQL =
+            "MERGE INTO cart_items t "
+                    + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS INT), CAST(? AS TIMESTAMP))) "
+                    + "s(user_id, product_id, quantity, updated_at) "
+                    + "ON t.user_id = s.user_id AND t.product_id = s.product_id "
+                    + "WHEN MATCHED THEN UPDATE SET quantity = s.quantity, updated_at = s.updated_at "
+                    + "WHEN NOT MATCHED THEN INSERT (user_id, product_id, quantity, updated_at) "
+                    + "VALUES (s.user_id, s.product_id, s.quantity, s.updated_at)";
+
+    private static final String MYSQL_SET_SQL =
+            "INSERT INTO cart_items (user_id, product_id, quantity, updated_at) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), updated_at = VALUES(updated_at)";
+
+    private static final String DELETE_LINE_SQL =
+            "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
+
+    private static final String SELECT_QUANTITY_SQL =
+            "SELECT id, quantity FROM cart_items WHERE user_id = ? AND product_id = ?";
+
+    private static final String SELECT_LINES_SQL =
+            "SELECT id, product_id, quantity FROM cart_items WHERE user_id = ? ORDER BY id";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cart_items (user_id, product_id, quantity, updated_at) VALUES (?, ?, ?, ?)";
+
+    private static final String UPDATE_QUANTITY_SQL =
+            "UPDATE cart_items SET quantity = ?, updated_at = ? WHERE id = ?";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM cart_items WHERE id = ?";
+
+    private static final String SELECT_ALL_LINES_SQL =
+            "SELECT user_id, product_id, quantity FROM cart_items ORDER BY user_id";
+
+    private static final String SELECT_ACTIVITY_SQL =
+            "SELECT user_id, MAX(updated_at) AS last_updated FROM cart_items GROUP BY user_id";
+
+    private static final String DELETE_IDLE_SQL =
+            "DELETE FROM cart_items WHERE user_id = ? AND (updated_at IS NULL OR updated_at < ?)";
+
+    private static final RowMapper<CartActivity> ACTIVITY_MAPPER = (rs, rowNum) -> {
+        Timestamp lastUpdated = rs.getTimestamp("last_updated");
+        return new CartActivity(rs.getLong("user_id"), lastUpdated == null ? null : lastUpdated.toLocalDateTime());
+    };
+
+    private static final RowMapper<CartLine> LINE_MAPPER =
+            (rs, rowNum) -> new CartLine(rs.getLong("id"), rs.getLong("product_id"), rs.getInt("quantity"));
+
+    private static final RowMapper<UserCartLine> USER_LINE_MAPPER = (rs, rowNum) ->
+            new UserCartLine(rs.getLong("user_id"), rs.getLong("product_id"), rs.getInt("quantity"));
+
+    private static final RowMapper<CartItemQuantity> ROW_MAPPER =
+            (rs, rowNum) -> new CartItemQuantity(rs.getLong("id"), rs.getInt("quantity"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean mysql;
+
+    public CartItemRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public CartItemQuantity addQuantity(Long userId, Long productId, int quantity) {
+        Timestamp now = now();
+        if (isMysql()) {
+            jdbcTemplate.update(MYSQL_UPSERT_SQL, userId, productId, quantity, now);
+            return jdbcTemplate.queryForObject(SELECT_QUANTITY_SQL, ROW_MAPPER, userId, productId);
+        }
+        try {
+            return jdbcTemplate.queryForObject(H2_UPSERT_SQL, ROW_MAPPER, userId, productId, quantity, now);
+        } catch (DuplicateKeyException e) {
+            // MERGE en H2 no es atómico frente a dos inserciones simultáneas:
+            // la que pierde se repite y encuentra ya la fila
+            return jdbcTemplate.queryForObject(H2_UPSERT_SQL, ROW_MAPPER, userId, productId, quantity, now);
+        }
+    }
+
+    @Override
+    public List<CartLine> findLinesByUserId(Long userId) {
+        return jdbcTemplate.query(SELECT_LINES_SQL, LINE_MAPPER, userId);
+    }
+
+    @Override
+    public void batchInsert(Long userId, Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, quantitiesByProduct.entrySet().stream()
+                .map(entry -> new Object[]{userId, entry.getKey(), entry.getValue(), now})
+                .toList());
+    }
+
+    @Override
+    public void batchUpdateQuantities(List<CartItemQuantity> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate(UPDATE_QUANTITY_SQL, items.stream()
+                .map(item -> new Object[]{item.quantity(), now, item.id()})
+                .toList());
+    }
+
+    @Override
+    public void batchDelete(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, ids.stream()
+                .map(id -> new Object[]{id})
+                .toList());
+    }
+
+    @Override
+    public void batchSetQuantities(List<UserCartLine> lines, LocalDateTime touchedAt) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(touchedAt);
+        jdbcTemplate.batchUpdate(isMysql() ? MYSQL_SET_SQL : H2_SET_SQL, lines.stream()
+                .map(line -> new Object[]{line.userId(), line.productId(), line.quantity(), timestamp})
+                .toList());
+    }
+
+    @Override
+    public void batchDeleteLines(List<UserCartLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_LINE_SQL, lines.stream()
+                .map(line -> new Object[]{line.userId(), line.productId()})
+                .toList());
+    }
+
+    @Override
+    public List<CartActivity> findLastActivityByUser() {
+        return jdbcTemplate.query(SELECT_ACTIVITY_SQL, ACTIVITY_MAPPER);
+    }
+
+    @Override
+    public List<UserCartLine> findAllLines() {
+        return jdbcTemplate.query(SELECT_ALL_LINES_SQL, USER_LINE_MAPPER);
+    }
+
+    @Override
+    public int deleteIdleLines(List<Long> userIds, LocalDateTime cutoff) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        Timestamp timestamp = Timestamp.valueOf(cutoff);
+        int[] counts = jdbcTemplate.batchUpdate(DELETE_IDLE_SQL, userIds.stream()
+                .map(userId -> new Object[]{userId, timestamp})
+                .toList());
+        // Algunos controladores no informan del número de filas de cada
+        // sentencia del lote (SUCCESS_NO_INFO)
+        return Arrays.stream(counts).map(count -> Math.max(count, 0)).sum();
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    private boolean isMysql() {
+        Boolean result = mysql;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            result = product != null && product.toLowerCase(Locale.ROOT).contains("mysql");
+            mysql = result;
+        }
+        return result;
+    }
+}
@@ -1,8 +1,11 @@
 package com.frutolandia.repository;
 
+import com.frutolandia.dto.FavoriteView;
 import com.frutolandia.model.Favorite;
 import com.frutolandia.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,16 +21,38 @@ import java.util.Optional;
  * @since 2025-12-17
  */
 @Repository
-public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
+public interface FavoriteRepository extends JpaRepository<Favorite, Long>, FavoriteRepositoryCustom {
 
     /**
-     * Busca todos los favoritos de un usuario.
+     * Busca todos los favoritos de un usuario, con sus productos en la misma
+     * consulta.
      * 
      * @param user el usuario
      * @return lista de favoritos del usuario
      */
+    @EntityGraph(attributePaths = "product")
     List<Favorite> findByUser(User user);
 
+    /**
+     * Obtiene la vista reducida de los favoritos de un usuario en una sola
+     * consulta, leyendo solo las columnas necesarias del producto.
+     * 
+     * @param email el email del usuario
+     * @return lista de favoritos del usuario
+     */
+    @Query("SELECT new com.frutolandia.dto.FavoriteView(p.id, p.name, p.price, p.stockQuantity) "
+            + "FROM Favorite f JOIN f.product p WHERE f.user.email = :email ORDER BY f.id")
+    List<FavoriteView> findViewsByUserEmail(@Param("email") String email);
+
+    /**
+     * Obtiene los IDs de los productos favoritos de un usuario, ordenados.
+     * 
+     * @param userId el ID del usuario
+     * @return IDs de producto de menor a mayor
+     */
+    @Query("SELECT f.product.id FROM Favorite f WHERE f.user.id = :userId ORDER BY f.product.id")
+    List<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
     /**
      * Busca un favorito específico por usuario y producto.
      * 
@@ -39,24 +64,33 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     Optional<Favorite> findByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
 
     /**
-     * Elimina un favorito por usuario y producto.
+     * Elimina un favorito por usuario y producto en una sola sentencia.
      * 
      * @param userId el ID del usuario
      * @param productId el ID del producto
+     * @return número de favoritos eliminados (0 o 1)
      */
-    void deleteByUserIdAndProductId(Long userId, Long productId);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Favorite f WHERE f.user.id = :userId AND f.product.id = :productId")
+    int deleteByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
     
     /**
-     * Elimina todos los favoritos de un usuario.
+     * Elimina todos los favoritos de un usuario en una sola sentencia, sin
+     * cargar las entidades.
      * 
      * @param userId el ID del usuario
      */
-    void deleteByUserId(Long userId);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Favorite f WHERE f.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
     
     /**
-     * Elimina todos los favoritos de un producto.
+     * Elimina todos los favoritos de un producto en una sola sentencia, sin
+     * cargar las entidades.
      * 
      * @param productId el ID del producto
      */
-    void deleteByProductId(Long productId);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Favorite f WHERE f.product.id = :productId")
+    void deleteByProductId(@Param("productId") Long productId);
 }
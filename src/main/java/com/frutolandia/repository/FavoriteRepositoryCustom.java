@@ -0,0 +1,21 @@
+package com.frutolandia.repository;
+
+/**
+ * Operaciones del repositorio de favoritos implementadas con SQL nativo.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public interface FavoriteRepositoryCustom {
+
+    /**
+     * Añade un producto a los favoritos de un usuario si no estaba ya, en
+     * una única sentencia.
+     *
+     * @param userId ID del usuario
+     * @param productId ID del producto
+     * @return {@code true} si se ha añadido; {@code false} si ya era favorito
+     */
+    boolean insertIfAbsent(Long userId, Long productId);
+}
@@ -0,0 +1,64 @@
+package com.frutolandia.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Locale;
+
+/**
+ * Implementación de {@link FavoriteRepositoryCustom}.
+ * <p>
+ * La inserción condicional usa la sentencia nativa del motor:
+ * {@code MERGE} con solo la rama {@code WHEN NOT MATCHED} en H2 e
+ * {@code INSERT IGNORE} en MySQL. En ambos casos el número de filas
+ * afectadas indica si el favorito se ha creado.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public class FavoriteRepositoryImpl implements FavoriteRepositoryCustom {
+
+    private static final String H2_INSERT_IF_ABSENT_SQL =
+            "MERGE INTO favorites t "
+                    + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) s(user_id, product_id) "
+                    + "ON t.user_id = s.user_id AND t.product_id = s.product_id "
+                    + "WHEN NOT MATCHED THEN INSERT (user_id, product_id) VALUES (s.user_id, s.product_id)";
+
+    private static final String MYSQL_INSERT_IF_ABSENT_SQL =
+            "INSERT IGNORE INTO favorites (user_id, product_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean mysql;
+
+    public FavoriteRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean insertIfAbsent(Long userId, Long productId) {
+        if (isMysql()) {
+            return jdbcTemplate.update(MYSQL_INSERT_IF_ABSENT_SQL, userId, productId) == 1;
+        }
+        try {
+            return jdbcTemplate.update(H2_INSERT_IF_ABSENT_SQL, userId, productId) == 1;
+        } catch (DuplicateKeyException e) {
+            // MERGE en H2 no es atómico frente a dos inserciones simultáneas:
+            // la que pierde encuentra el favorito ya creado
+            return false;
+        }
+    }
+
+    private boolean isMysql() {
+        Boolean result = mysql;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            result = product != null && product.toLowerCase(Locale.ROOT).contains("mysql");
+            mysql = result;
+        }
+        return result;
+    }
+}
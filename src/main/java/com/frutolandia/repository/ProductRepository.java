@@ -1,10 +1,16 @@
 package com.frutolandia.repository;
 
 import com.frutolandia.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la gestión de productos.
@@ -30,4 +36,39 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return lista de productos que coinciden con la búsqueda
      */
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    /**
+     * Página de resultados de búsqueda por nombre, ordenados por ID.
+     *
+     * @param name el texto a buscar en el nombre del producto
+     * @param afterId último ID de la página anterior (0 para la primera)
+     * @param limit número máximo de productos
+     * @return productos que coinciden con la búsqueda
+     */
+    List<Product> findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String name, Long afterId, Limit limit);
+
+    /**
+     * Recorre todos los productos ordenados por ID sin cargarlos en memoria.
+     * <p>
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * Las filas se leen del driver en bloques del tamaño de fetch indicado
+     * (en MySQL requiere {@code useCursorFetch=true} en la URL JDBC).
+     * </p>
+     *
+     * @return flujo de productos
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
+
+    /**
+     * Busca los productos modificados después de una versión.
+     *
+     * @param changeVersion versión de referencia (exclusiva)
+     * @return productos ordenados por versión de cambio
+     */
+    List<Product> findByChangeVersionGreaterThanOrderByChangeVersionAsc(Long changeVersion);
 }
@@ -0,0 +1,26 @@
+package com.frutolandia.repository;
+
+import com.frutolandia.model.ProductTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio para los registros de productos eliminados.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    /**
+     * Busca las eliminaciones posteriores a una versión.
+     *
+     * @param changeVersion versión de referencia (exclusiva)
+     * @return eliminaciones ordenadas por versión
+     */
+    List<ProductTombstone> findByChangeVersionGreaterThanOrderByChangeVersionAsc(Long changeVersion);
+}
@@ -1,22 +1,40 @@
 package com.frutolandia.service;
 
+import com.frutolandia.cart.CartStore;
+import com.frutolandia.cart.IdleCartSweeper;
+import com.frutolandia.catalog.CatalogSnapshot;
+import com.frutolandia.catalog.ProductCatalog;
+import com.frutolandia.dto.CartItemRequest;
 import com.frutolandia.dto.CartItemResponse;
-import com.frutolandia.model.CartItem;
+import com.frutolandia.dto.CartItemView;
+import com.frutolandia.dto.CartOperation;
+import com.frutolandia.dto.CartPatchRequest;
+import com.frutolandia.dto.CartSummary;
+import com.frutolandia.dto.CartSweeperStats;
+import com.frutolandia.exception.BadRequestException;
+import com.frutolandia.exception.ResourceNotFoundException;
+import com.frutolandia.inventory.StockReservationEngine;
 import com.frutolandia.model.Product;
-import com.frutolandia.model.User;
-import com.frutolandia.repository.CartItemRepository;
-import com.frutolandia.repository.ProductRepository;
-import com.frutolandia.repository.UserRepository;
+import com.frutolandia.popularity.PopularityTracker;
+import com.frutolandia.recommendation.RecommendationEngine;
+import com.frutolandia.repository.CartItemRepositoryCustom;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Servicio para la gestión del carrito de compras.
+ * <p>
+ * Las líneas se guardan a través de un {@link CartStore}; los datos de los
+ * productos se toman del catálogo en memoria.
+ * </p>
  * 
  * @author Frutolandia Team
  * @version 1.0
@@ -26,66 +44,236 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CartService {
 
-    private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    /** Número máximo de operaciones o líneas en una modificación por lotes. */
+    public static final int MAX_PATCH_SIZE = 100;
+
+    private final CartStore cartStore;
+    private final StockReservationEngine stockReservationEngine;
+    private final ProductCatalog productCatalog;
+    private final CartSummaryCache cartSummaryCache;
+    private final IdleCartSweeper idleCartSweeper;
+    private final PopularityTracker popularityTracker;
+    private final RecommendationEngine recommendationEngine;
 
     /**
      * Obtiene todos los ítems del carrito de un usuario.
      */
+    @Transactional(readOnly = true)
     public List<CartItemResponse> getCartItems(Long userId) {
-        return cartItemRepository.findByUserId(userId).stream()
-                .map(item -> new CartItemResponse(
-                        item.getId(),
-                        item.getProduct(),
-                        item.getQuantity()
-                ))
-                .collect(Collectors.toList());
+        return toResponses(cartStore.findLines(userId));
     }
 
     /**
-     * Añade un producto al carrito o actualiza su cantidad si ya existe.
+     * Obtiene la vista reducida del carrito de un usuario
+     * (sin descripción ni ingredientes).
      */
-    @Transactional
-    public CartItemResponse addToCart(@NonNull Long userId, @NonNull Long productId, Integer quantity) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+    @Transactional(readOnly = true)
+    public List<CartItemView> getCartItemViews(Long userId) {
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        return cartStore.findLines(userId).stream()
+                .filter(line -> snapshot.get(line.productId()) != null)
+                .map(line -> {
+                    Product product = snapshot.get(line.productId());
+                    return new CartItemView(line.id(), product.getId(), product.getName(), product.getPrice(),
+                            line.quantity(), product.getStockQuantity());
+                })
+                .toList();
+    }
 
-        // Verificar si el ítem ya existe en el carrito
-        CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, productId)
-                .orElse(new CartItem(user, product, 0));
+    /**
+     * Obtiene el resumen del carrito (número de unidades, subtotal y total
+     * por línea) desde la caché por usuario.
+     */
+    public CartSummary getCartSummary(Long userId) {
+        return cartSummaryCache.get(userId);
+    }
+
+    /**
+     * Obtiene las métricas del barrido de carritos abandonados.
+     */
+    public CartSweeperStats getSweeperStats() {
+        return idleCartSweeper.getStats();
+    }
 
-        // Actualizar cantidad
-        cartItem.setQuantity(cartItem.getQuantity() + quantity);
+    /**
+     * Añade un producto al carrito o suma la cantidad si ya existe.
+     * <p>
+     * El alta o la suma son atómicas frente a adiciones simultáneas del
+     * mismo producto (un único upsert nativo con el almacenamiento JDBC).
+     * El producto se valida y se devuelve desde el catálogo en memoria.
+     * Reserva el stock de las unidades del carrito.
+     * </p>
+     */
+    @Transactional
+    public CartItemResponse addToCart(@NonNull Long userId, @NonNull Long productId, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new BadRequestException("La cantidad debe ser mayor que cero");
+        }
+        Product product = productCatalog.snapshot().get(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Producto", "id", productId);
+        }
 
-        // Guardar
-        cartItem = cartItemRepository.save(cartItem);
+        CartItemRepositoryCustom.CartItemQuantity item = cartStore.addQuantity(userId, productId, quantity);
+        stockReservationEngine.reserve(userId, productId, item.quantity());
+        cartSummaryCache.invalidate(userId);
+        idleCartSweeper.touch(userId);
+        if (item.quantity() == quantity) {
+            // La línea no existía
+            popularityTracker.addedToCart(productId);
+        }
+        recommendationEngine.cartLineAdded(userId, productId);
 
-        return new CartItemResponse(cartItem.getId(), cartItem.getProduct(), cartItem.getQuantity());
+        return new CartItemResponse(item.id(), product, item.quantity());
     }
 
     /**
-     * Actualiza la cantidad de un ítem en el carrito.
+     * Actualiza la cantidad de un ítem en el carrito y su reserva de stock.
      */
     @Transactional
     public CartItemResponse updateCartItem(@NonNull Long userId, @NonNull Long productId, Integer quantity) {
-        CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, productId)
-                .orElseThrow(() -> new RuntimeException("Ítem no encontrado en el carrito"));
+        if (quantity > 0) {
+            stockReservationEngine.reserve(userId, productId, quantity);
+        }
+        CartItemRepositoryCustom.CartItemQuantity item = cartStore.updateQuantity(userId, productId, quantity);
+        if (item == null) {
+            throw new RuntimeException("Ítem no encontrado en el carrito");
+        }
+        idleCartSweeper.touch(userId);
 
         if (quantity <= 0) {
-            @SuppressWarnings("null")
-            CartItem itemToDelete = cartItem;
-            cartItemRepository.delete(itemToDelete);
+            stockReservationEngine.release(userId, productId);
+            cartSummaryCache.invalidate(userId);
+            recommendationEngine.cartLineRemoved(userId, productId);
             return null;
         }
 
-        cartItem.setQuantity(quantity);
-        cartItem = cartItemRepository.save(cartItem);
+        cartSummaryCache.invalidate(userId);
+        return new CartItemResponse(item.id(), productCatalog.snapshot().get(productId), item.quantity());
+    }
+
+    /**
+     * Modifica varias líneas del carrito en una sola transacción.
+     * <p>
+     * Acepta una lista de operaciones o el estado final deseado (ver
+     * {@link CartPatchRequest}). Se lee el carrito una vez, se calcula el
+     * estado final y el {@link CartStore} aplica la diferencia en lotes
+     * JDBC. Las reservas de stock se ajustan para cada línea modificada; si
+     * alguna no puede reservarse no se aplica ningún cambio.
+     * </p>
+     *
+     * @param userId ID del usuario
+     * @param request operaciones o estado final del carrito
+     * @return el carrito resultante
+     * @throws BadRequestException si la petición no es válida o no hay stock suficiente
+     * @throws ResourceNotFoundException si algún producto no existe
+     */
+    @Transactional
+    public List<CartItemResponse> patchCart(@NonNull Long userId, @NonNull CartPatchRequest request) {
+        boolean hasOperations = request.getOperations() != null;
+        if (hasOperations == (request.getItems() != null)) {
+            throw new BadRequestException("Debe indicar 'operations' o 'items', pero no ambos");
+        }
+        int size = hasOperations ? request.getOperations().size() : request.getItems().size();
+        if (size > MAX_PATCH_SIZE) {
+            throw new BadRequestException("No se pueden enviar más de " + MAX_PATCH_SIZE + " cambios a la vez");
+        }
+
+        List<CartItemRepositoryCustom.CartLine> lines = cartStore.findLines(userId);
+        Map<Long, CartItemRepositoryCustom.CartLine> current = new LinkedHashMap<>();
+        lines.forEach(line -> current.put(line.productId(), line));
+        Map<Long, Integer> target = hasOperations
+                ? applyOperations(current, request.getOperations())
+                : desiredState(request.getItems());
+
+        target.forEach((productId, quantity) -> {
+            CartItemRepositoryCustom.CartLine line = current.get(productId);
+            if (line == null || !line.quantity().equals(quantity)) {
+                stockReservationEngine.reserve(userId, productId, quantity);
+            }
+        });
+        current.keySet().stream()
+                .filter(productId -> !target.containsKey(productId))
+                .forEach(productId -> stockReservationEngine.release(userId, productId));
+
+        cartStore.replace(userId, lines, target);
+        cartSummaryCache.invalidate(userId);
+        idleCartSweeper.touch(userId);
+        target.keySet().stream()
+                .filter(productId -> !current.containsKey(productId))
+                .forEach(popularityTracker::addedToCart);
+        recommendationEngine.cartReplaced(userId, target.keySet());
+
+        return toResponses(cartStore.findLines(userId));
+    }
+
+    private List<CartItemResponse> toResponses(List<CartItemRepositoryCustom.CartLine> lines) {
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        return lines.stream()
+                .filter(line -> snapshot.get(line.productId()) != null)
+                .map(line -> new CartItemResponse(line.id(), snapshot.get(line.productId()), line.quantity()))
+                .toList();
+    }
+
+    private Map<Long, Integer> applyOperations(Map<Long, CartItemRepositoryCustom.CartLine> current,
+                                               List<CartOperation> operations) {
+        Map<Long, Integer> result = new LinkedHashMap<>();
+        current.forEach((productId, line) -> result.put(productId, line.quantity()));
+        for (CartOperation operation : operations) {
+            if (operation.getOp() == null || operation.getProductId() == null) {
+                throw new BadRequestException("Cada operación debe indicar 'op' y 'productId'");
+            }
+            Long productId = operation.getProductId();
+            switch (operation.getOp()) {
+                case ADD -> {
+                    requireProduct(productId);
+                    result.merge(productId, requireQuantity(operation.getQuantity(), 1), Integer::sum);
+                }
+                case SET -> {
+                    int quantity = requireQuantity(operation.getQuantity(), 0);
+                    if (quantity == 0) {
+                        result.remove(productId);
+                    } else {
+                        requireProduct(productId);
+                        result.put(productId, quantity);
+                    }
+                }
+                case REMOVE -> result.remove(productId);
+            }
+        }
+        return result;
+    }
+
+    private Map<Long, Integer> desiredState(List<CartItemRequest> items) {
+        Map<Long, Integer> result = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (CartItemRequest item : items) {
+            if (item.getProductId() == null) {
+                throw new BadRequestException("Cada línea debe indicar 'productId'");
+            }
+            int quantity = requireQuantity(item.getQuantity(), 0);
+            if (!seen.add(item.getProductId())) {
+                throw new BadRequestException("Producto repetido en el carrito: " + item.getProductId());
+            }
+            if (quantity > 0) {
+                requireProduct(item.getProductId());
+                result.put(item.getProductId(), quantity);
+            }
+        }
+        return result;
+    }
 
-        return new CartItemResponse(cartItem.getId(), cartItem.getProduct(), cartItem.getQuantity());
+    private void requireProduct(Long productId) {
+        if (productCatalog.snapshot().get(productId) == null) {
+            throw new ResourceNotFoundException("Producto", "id", productId);
+        }
+    }
+
+    private static int requireQuantity(Integer quantity, int min) {
+        if (quantity == null || quantity < min) {
+            throw new BadRequestException("La cantidad debe ser mayor o igual que " + min);
+        }
+        return quantity;
     }
 
     /**
@@ -93,7 +281,11 @@ public class CartService {
      */
     @Transactional
     public void removeFromCart(Long userId, Long productId) {
-        cartItemRepository.deleteByUserIdAndProductId(userId, productId);
+        cartStore.updateQuantity(userId, productId, 0);
+        stockReservationEngine.release(userId, productId);
+        cartSummaryCache.invalidate(userId);
+        idleCartSweeper.touch(userId);
+        recommendationEngine.cartLineRemoved(userId, productId);
     }
 
     /**
@@ -101,6 +293,10 @@ public class CartService {
      */
     @Transactional
     public void clearCart(Long userId) {
-        cartItemRepository.deleteByUserId(userId);
+        cartStore.clear(userId);
+        stockReservationEngine.releaseAll(userId);
+        cartSummaryCache.invalidate(userId);
+        idleCartSweeper.forget(userId);
+        recommendationEngine.cartCleared(userId);
     }
 }
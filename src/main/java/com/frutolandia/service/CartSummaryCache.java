@@ -0,0 +1,166 @@
+package com.frutolandia.service;
+
+import com.frutolandia.cart.CartStore;
+import com.frutolandia.catalog.CatalogSnapshot;
+import com.frutolandia.catalog.ProductCatalog;
+import com.frutolandia.dto.CartSummary;
+import com.frutolandia.event.ProductChangedEvent;
+import com.frutolandia.model.Product;
+import com.frutolandia.util.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché por usuario del resumen del carrito.
+ * <p>
+ * Guarda las cantidades de cada línea y el último resumen calculado con los
+ * precios del catálogo en memoria, de modo que el resumen se sirve sin
+ * consultar {@code cart_items}; solo un usuario que no está en la caché
+ * provoca una lectura.
+ * </p>
+ * <p>
+ * Las mutaciones del carrito descartan la entrada del usuario tras el
+ * commit en lugar de escribir en ella la cantidad resultante: los
+ * callbacks de dos transacciones simultáneas pueden ejecutarse en orden
+ * distinto al de sus commits, y aplicar cantidades absolutas dejaría en
+ * caché la más antigua. La siguiente lectura vuelve a cargar el carrito.
+ * </p>
+ * <p>
+ * Los importes se calculan con {@link BigDecimal}. Cada resumen recuerda la
+ * versión de contenido de la instantánea del catálogo con la que se calculó
+ * y se recalcula al pedirlo si la instantánea actual es otra; los cambios
+ * que solo afectan al stock no cambian esa versión.
+ * </p>
+ * <p>
+ * Una carga que coincide con una modificación no se guarda, para no dejar
+ * en caché un carrito anterior al cambio.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+@RequiredArgsConstructor
+public class CartSummaryCache {
+
+    /** Número máximo de usuarios en caché; por encima se calcula sin guardar. */
+    private static final int MAX_ENTRIES = 50_000;
+
+    private static final int PRICE_SCALE = 2;
+
+    private final CartStore cartStore;
+    private final ProductCatalog productCatalog;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+
+    /**
+     * Devuelve el resumen del carrito de un usuario.
+     *
+     * @param userId ID del usuario
+     * @return el resumen con los totales
+     */
+    public CartSummary get(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            long seen = modifications.get();
+            entry = load(userId);
+            if (modifications.get() == seen && entries.size() < MAX_ENTRIES) {
+                Entry existing = entries.putIfAbsent(userId, entry);
+                entry = existing != null ? existing : entry;
+            }
+        }
+        return entry.summary(productCatalog.snapshot());
+    }
+
+    /**
+     * Descarta el carrito de un usuario de la caché tras el commit de la
+     * transacción que lo modifica.
+     */
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> evict(userId));
+    }
+
+    /**
+     * Descarta el carrito de un usuario de la caché.
+     */
+    public void evict(Long userId) {
+        modifications.incrementAndGet();
+        entries.remove(userId);
+    }
+
+    /**
+     * Elimina de los carritos en caché los productos borrados.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            modifications.incrementAndGet();
+            entries.values().forEach(entry -> entry.remove(event.getProductId()));
+        }
+    }
+
+    private Entry load(Long userId) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        cartStore.findLines(userId)
+                .forEach(line -> quantities.put(line.productId(), line.quantity()));
+        return new Entry(quantities);
+    }
+
+    private static CartSummary compute(Map<Long, Integer> quantities, CatalogSnapshot snapshot) {
+        List<CartSummary.Line> lines = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO.setScale(PRICE_SCALE);
+        int itemCount = 0;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Product product = snapshot.get(line.getKey());
+            if (product == null || product.getPrice() == null) {
+                continue;
+            }
+            BigDecimal unitPrice = BigDecimal.valueOf(product.getPrice()).setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(line.getValue()));
+            lines.add(new CartSummary.Line(product.getId(), product.getName(), unitPrice, line.getValue(), lineTotal));
+            subtotal = subtotal.add(lineTotal);
+            itemCount += line.getValue();
+        }
+        return new CartSummary(itemCount, subtotal, List.copyOf(lines));
+    }
+
+    /**
+     * Carrito en caché de un usuario.
+     */
+    private static final class Entry {
+
+        private final Map<Long, Integer> quantities;
+        private CartSummary summary;
+        private long contentVersion = -1;
+
+        Entry(Map<Long, Integer> quantities) {
+            this.quantities = quantities;
+        }
+
+        synchronized CartSummary summary(CatalogSnapshot snapshot) {
+            if (summary == null || contentVersion != snapshot.getContentVersion()) {
+                summary = compute(quantities, snapshot);
+                contentVersion = snapshot.getContentVersion();
+            }
+            return summary;
+        }
+
+        synchronized void remove(Long productId) {
+            if (quantities.remove(productId) != null) {
+                summary = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.frutolandia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frutolandia.model.Product;
+import com.frutolandia.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Servicio para la exportación completa del catálogo.
+ * <p>
+ * Recorre los productos con un cursor JDBC y los escribe uno a uno en la
+ * salida, desacoplando cada entidad del contexto de persistencia en cuanto
+ * se ha escrito, de modo que la memoria usada no depende del tamaño del
+ * catálogo.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogExportService {
+
+    private static final String CSV_HEADER = "id,name,price,ingredients,description,stockQuantity";
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Escribe el catálogo como NDJSON (un objeto JSON por línea).
+     *
+     * @param out flujo de salida de la respuesta; no se cierra
+     * @throws IOException si falla la escritura
+     */
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        forEachProduct(product -> {
+            writer.write(objectMapper.writeValueAsString(product));
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+
+    /**
+     * Escribe el catálogo como CSV con cabecera.
+     *
+     * @param out flujo de salida de la respuesta; no se cierra
+     * @throws IOException si falla la escritura
+     */
+    @Transactional(readOnly = true)
+    public void exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        forEachProduct(product -> {
+            writer.write(String.valueOf(product.getId()));
+            writer.write(',');
+            writer.write(csv(product.getName()));
+            writer.write(',');
+            writer.write(product.getPrice() != null ? product.getPrice().toString() : "");
+            writer.write(',');
+            writer.write(csv(product.getIngredients()));
+            writer.write(',');
+            writer.write(csv(product.getDescription()));
+            writer.write(',');
+            writer.write(product.getStockQuantity() != null ? product.getStockQuantity().toString() : "");
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+
+    private void forEachProduct(ProductWriter action) throws IOException {
+        try (Stream<Product> products = productRepository.streamAllOrderById()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                action.write(product);
+                entityManager.detach(product);
+            }
+        }
+    }
+
+    /**
+     * Escapa un campo CSV según RFC 4180.
+     */
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface ProductWriter {
+        void write(Product product) throws IOException;
+    }
+}
@@ -0,0 +1,118 @@
+package com.frutolandia.service;
+
+import com.frutolandia.event.ProductChangedEvent;
+import com.frutolandia.repository.FavoriteRepository;
+import com.frutolandia.util.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché por usuario de los IDs de sus productos favoritos.
+ * <p>
+ * Cada usuario se guarda como un {@code long[]} ordenado e inmutable, de
+ * modo que comprobar si un producto es favorito es una búsqueda binaria sin
+ * consultar la base de datos; solo un usuario que no está en la caché
+ * provoca una lectura de {@code favorites}.
+ * </p>
+ * <p>
+ * Altas y bajas de favoritos descartan el array del usuario tras el
+ * commit. Aplicarlas sobre el array podría dejarlo mal si los callbacks de
+ * un alta y una baja simultáneas se ejecutan en orden distinto al de sus
+ * commits; la siguiente lectura lo vuelve a cargar.
+ * </p>
+ * <p>
+ * Una carga que coincide con una modificación no se guarda, para no dejar
+ * en caché una lista anterior al cambio.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Component
+@RequiredArgsConstructor
+public class FavoriteIdCache {
+
+    /** Número máximo de usuarios en caché; por encima se consulta sin guardar. */
+    private static final int MAX_ENTRIES = 50_000;
+
+    private final FavoriteRepository favoriteRepository;
+
+    private final Map<Long, long[]> entries = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+
+    /**
+     * Devuelve los IDs de los productos favoritos de un usuario.
+     *
+     * @param userId ID del usuario
+     * @return IDs ordenados de menor a mayor; el array no debe modificarse
+     */
+    public long[] get(Long userId) {
+        long[] ids = entries.get(userId);
+        if (ids != null) {
+            return ids;
+        }
+        long seen = modifications.get();
+        ids = favoriteRepository.findProductIdsByUserId(userId).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        if (modifications.get() == seen && entries.size() < MAX_ENTRIES) {
+            long[] existing = entries.putIfAbsent(userId, ids);
+            ids = existing != null ? existing : ids;
+        }
+        return ids;
+    }
+
+    /**
+     * Indica si un producto está entre los IDs de favoritos devueltos por
+     * {@link #get(Long)}.
+     */
+    public static boolean contains(long[] ids, Long productId) {
+        return productId != null && Arrays.binarySearch(ids, productId) >= 0;
+    }
+
+    /**
+     * Descarta los favoritos de un usuario de la caché tras el commit de la
+     * transacción que los modifica.
+     */
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> evict(userId));
+    }
+
+    /**
+     * Descarta los favoritos de un usuario de la caché.
+     */
+    public void evict(Long userId) {
+        modifications.incrementAndGet();
+        entries.remove(userId);
+    }
+
+    /**
+     * Quita de todos los usuarios los productos eliminados.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            modifications.incrementAndGet();
+            entries.replaceAll((userId, ids) -> without(ids, event.getProductId()));
+        }
+    }
+
+    private static long[] without(long[] ids, long productId) {
+        int index = Arrays.binarySearch(ids, productId);
+        if (index < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+
+}
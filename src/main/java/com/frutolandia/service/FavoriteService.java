@@ -1,19 +1,26 @@
 package com.frutolandia.service;
 
+import com.frutolandia.catalog.ProductCatalog;
+import com.frutolandia.dto.FavoriteView;
+import com.frutolandia.dto.FavoritedProduct;
+import com.frutolandia.exception.BadRequestException;
 import com.frutolandia.exception.DuplicateResourceException;
 import com.frutolandia.exception.ResourceNotFoundException;
 import com.frutolandia.model.Favorite;
 import com.frutolandia.model.Product;
 import com.frutolandia.model.User;
+import com.frutolandia.popularity.PopularityTracker;
+import com.frutolandia.recommendation.RecommendationEngine;
 import com.frutolandia.repository.FavoriteRepository;
-import com.frutolandia.repository.ProductRepository;
 import com.frutolandia.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio para la gestión de productos favoritos.
@@ -26,9 +33,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FavoriteService {
 
+    /** Número máximo de productos por comprobación de favoritos. */
+    private static final int MAX_CONTAINS_IDS = 500;
+
     private final FavoriteRepository favoriteRepository;
+    private final FavoriteIdCache favoriteIdCache;
+    private final PopularityTracker popularityTracker;
+    private final RecommendationEngine recommendationEngine;
     private final UserRepository userRepository;
-    private final ProductRepository productRepository;
+    private final ProductCatalog productCatalog;
 
     /**
      * Obtiene todos los productos favoritos de un usuario.
@@ -46,47 +59,130 @@ public class FavoriteService {
     }
 
     /**
-     * Agrega un producto a los favoritos del usuario.
+     * Obtiene la vista reducida de los favoritos de un usuario
+     * (sin descripción ni ingredientes) en una sola consulta.
      * 
      * @param email el email del usuario
+     * @return lista de favoritos
+     */
+    @Transactional(readOnly = true)
+    public List<FavoriteView> getFavoriteViewsByUserEmail(String email) {
+        return favoriteRepository.findViewsByUserEmail(email);
+    }
+
+    /**
+     * Comprueba qué productos están en los favoritos de un usuario, sin
+     * consultar la base de datos si sus favoritos ya están en caché.
+     * 
+     * @param userId el ID del usuario
+     * @param productIds IDs de los productos a comprobar
+     * @return para cada ID, en el orden recibido, si es favorito
+     * @throws BadRequestException si se piden más de 500 productos
+     */
+    public Map<Long, Boolean> containsFavorites(Long userId, List<Long> productIds) {
+        if (productIds.size() > MAX_CONTAINS_IDS) {
+            throw new BadRequestException("No se pueden comprobar más de " + MAX_CONTAINS_IDS + " productos a la vez");
+        }
+        long[] favoriteIds = favoriteIdCache.get(userId);
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            result.put(productId, FavoriteIdCache.contains(favoriteIds, productId));
+        }
+        return result;
+    }
+
+    /**
+     * Marca cuáles de los productos de un listado son favoritos del usuario.
+     * 
+     * @param userId el ID del usuario
+     * @param products productos del listado
+     * @return los mismos productos, en el mismo orden, con la marca de favorito
+     */
+    public List<FavoritedProduct> markFavorites(Long userId, List<Product> products) {
+        long[] favoriteIds = favoriteIdCache.get(userId);
+        return products.stream()
+            .map(product -> new FavoritedProduct(product, FavoriteIdCache.contains(favoriteIds, product.getId())))
+            .toList();
+    }
+
+    /**
+     * Agrega un producto a los favoritos del usuario.
+     * <p>
+     * El producto se comprueba en el catálogo en memoria y el favorito se
+     * inserta solo si no existe, en una única sentencia.
+     * </p>
+     * 
+     * @param userId el ID del usuario
      * @param productId el ID del producto
      * @return el producto agregado
+     * @throws ResourceNotFoundException si el producto no existe
+     * @throws DuplicateResourceException si el producto ya está en favoritos
      */
     @Transactional
-    public Product addFavorite(String email, @NonNull Long productId) {
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con email: " + email));
-        
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productId));
-        
-        // Verificar si ya existe el favorito
-        if (favoriteRepository.findByUserIdAndProductId(user.getId(), productId).isPresent()) {
+    public Product addFavorite(Long userId, @NonNull Long productId) {
+        Product product = findProduct(productId);
+        if (!favoriteRepository.insertIfAbsent(userId, productId)) {
             throw new DuplicateResourceException("El producto ya está en favoritos");
         }
-        
-        Favorite favorite = new Favorite(user, product);
-        favoriteRepository.save(favorite);
-        
+        favoriteIdCache.invalidate(userId);
+        popularityTracker.favoriteAdded(productId);
+        recommendationEngine.favoriteAdded(userId, productId);
         return product;
     }
 
     /**
-     * Elimina un producto de los favoritos del usuario.
+     * Elimina un producto de los favoritos del usuario en una única sentencia.
      * 
-     * @param email el email del usuario
+     * @param userId el ID del usuario
      * @param productId el ID del producto
+     * @throws ResourceNotFoundException si el producto no estaba en favoritos
      */
     @Transactional
-    public void removeFavorite(String email, @NonNull Long productId) {
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con email: " + email));
-        
-        Favorite favorite = favoriteRepository.findByUserIdAndProductId(user.getId(), productId)
-            .orElseThrow(() -> new ResourceNotFoundException("Favorito no encontrado"));
-        
-        @SuppressWarnings("null")
-        Favorite favoriteToDelete = favorite;
-        favoriteRepository.delete(favoriteToDelete);
+    public void removeFavorite(Long userId, @NonNull Long productId) {
+        if (favoriteRepository.deleteByUserIdAndProductId(userId, productId) == 0) {
+            throw new ResourceNotFoundException("Favorito no encontrado");
+        }
+        favoriteIdCache.invalidate(userId);
+        popularityTracker.favoriteRemoved(productId);
+        recommendationEngine.favoriteRemoved(userId, productId);
+    }
+
+    /**
+     * Marca o desmarca un producto como favorito. Repetir la llamada con el
+     * mismo valor no tiene efecto.
+     * 
+     * @param userId el ID del usuario
+     * @param productId el ID del producto
+     * @param favorited {@code true} para marcarlo, {@code false} para desmarcarlo
+     * @return {@code true} si el favorito ha cambiado
+     * @throws ResourceNotFoundException si se marca un producto que no existe
+     */
+    @Transactional
+    public boolean setFavorite(Long userId, @NonNull Long productId, boolean favorited) {
+        if (!favorited) {
+            boolean removed = favoriteRepository.deleteByUserIdAndProductId(userId, productId) > 0;
+            if (removed) {
+                favoriteIdCache.invalidate(userId);
+                popularityTracker.favoriteRemoved(productId);
+                recommendationEngine.favoriteRemoved(userId, productId);
+            }
+            return removed;
+        }
+        findProduct(productId);
+        boolean added = favoriteRepository.insertIfAbsent(userId, productId);
+        if (added) {
+            favoriteIdCache.invalidate(userId);
+            popularityTracker.favoriteAdded(productId);
+            recommendationEngine.favoriteAdded(userId, productId);
+        }
+        return added;
+    }
+
+    private Product findProduct(Long productId) {
+        Product product = productCatalog.snapshot().get(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Producto no encontrado con ID: " + productId);
+        }
+        return product;
     }
 }
@@ -0,0 +1,109 @@
+package com.frutolandia.service;
+
+import com.frutolandia.catalog.ProductSortIndex;
+import com.frutolandia.exception.BadRequestException;
+import com.frutolandia.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación por clave (keyset) del catálogo.
+ * <p>
+ * Codifica la ordenación, su sentido y la clave del último producto devuelto
+ * ({@code campo|sentido|id|valor}) en Base64 URL-safe, de forma que la
+ * página siguiente se localiza por búsqueda en lugar de OFFSET.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public final class ProductCursor {
+
+    private static final String ASC = "asc";
+    private static final String DESC = "desc";
+
+    private final ProductSortIndex.Field field;
+    private final boolean descending;
+    private final Long id;
+    private final String value;
+
+    private ProductCursor(ProductSortIndex.Field field, boolean descending, Long id, String value) {
+        this.field = field;
+        this.descending = descending;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * Crea el cursor que apunta justo después del producto indicado.
+     */
+    public static ProductCursor after(ProductSortIndex.Field field, boolean descending, Product product) {
+        String value = switch (field) {
+            case ID -> "";
+            case NAME -> product.getName();
+            case PRICE -> String.valueOf(product.getPrice() != null ? product.getPrice() : 0.0);
+            case STOCK -> String.valueOf(product.getStockQuantity() != null ? product.getStockQuantity() : 0);
+        };
+        return new ProductCursor(field, descending, product.getId(), value);
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @throws BadRequestException si el cursor está mal formado
+     */
+    public static ProductCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            ProductSortIndex.Field field = ProductSortIndex.Field.valueOf(parts[0]);
+            if (!ASC.equals(parts[1]) && !DESC.equals(parts[1])) {
+                throw new IllegalArgumentException(parts[1]);
+            }
+            ProductCursor cursor = new ProductCursor(field, DESC.equals(parts[1]), Long.valueOf(parts[2]), parts[3]);
+            cursor.position();
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor no válido");
+        }
+    }
+
+    /**
+     * Codifica el cursor para enviarlo al cliente.
+     */
+    public String encode() {
+        String raw = field.name() + "|" + (descending ? DESC : ASC) + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Producto con el ID y el valor del campo de ordenación del cursor, para
+     * localizar su posición en {@link ProductSortIndex}.
+     */
+    public Product position() {
+        Product product = new Product();
+        product.setId(id);
+        switch (field) {
+            case NAME -> product.setName(value);
+            case PRICE -> product.setPrice(Double.valueOf(value));
+            case STOCK -> product.setStockQuantity(Integer.valueOf(value));
+            default -> {
+            }
+        }
+        return product;
+    }
+
+    public ProductSortIndex.Field getField() {
+        return field;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,328 @@
+package com.frutolandia.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frutolandia.dto.ProductImportResponse;
+import com.frutolandia.event.ProductsImportedEvent;
+import com.frutolandia.exception.BadRequestException;
+import com.frutolandia.model.Product;
+import com.frutolandia.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para la importación masiva de productos.
+ * <p>
+ * Lee la entrada (NDJSON o CSV con cabecera) en streaming, valida cada fila
+ * con las restricciones de {@link Product} y guarda las filas válidas en
+ * lotes de {@link #CHUNK_SIZE}, cada uno en su propia transacción, para que
+ * Hibernate agrupe los INSERT en lotes JDBC. Cada lote publica un
+ * {@link ProductsImportedEvent} que, tras el commit, añade sus productos al
+ * catálogo en memoria y a sus índices y los difunde a los suscriptores de
+ * cambios, igual que un alta individual.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    /** Número de productos guardados por transacción. */
+    static final int CHUNK_SIZE = 500;
+
+    /** Número máximo de errores detallados en la respuesta. */
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    /**
+     * Formatos de entrada admitidos.
+     */
+    public enum Format {
+        /** Un objeto JSON por línea */
+        NDJSON,
+        /** CSV con cabecera (name, price, ingredients, description, stockQuantity) */
+        CSV
+    }
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Importa productos desde un flujo de entrada.
+     *
+     * @param input cuerpo de la petición (UTF-8)
+     * @param format formato de la entrada
+     * @return número de productos importados y errores por fila
+     * @throws IOException si falla la lectura de la entrada
+     * @throws BadRequestException si la cabecera CSV no es válida
+     */
+    public ProductImportResponse importProducts(InputStream input, Format format) throws IOException {
+        ProductImportResponse report = new ProductImportResponse();
+        List<Product> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> chunkLines = new ArrayList<>(CHUNK_SIZE);
+
+        Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowSource rows = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+        Row row;
+        while ((row = rows.next()) != null) {
+            Product product;
+            try {
+                product = row.parse();
+            } catch (JsonProcessingException e) {
+                reject(report, row.line(), "Formato no válido: " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                reject(report, row.line(), "Formato no válido: " + e.getMessage());
+                continue;
+            }
+            product.setId(null);
+            String violations = validate(product);
+            if (violations != null) {
+                reject(report, row.line(), violations);
+                continue;
+            }
+            chunk.add(product);
+            chunkLines.add(row.line());
+            if (chunk.size() == CHUNK_SIZE) {
+                saveChunk(chunk, chunkLines, report);
+            }
+        }
+        saveChunk(chunk, chunkLines, report);
+        return report;
+    }
+
+    private void saveChunk(List<Product> chunk, List<Long> lines, ProductImportResponse report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Product> saved = productRepository.saveAll(chunk);
+                entityManager.flush();
+                entityManager.clear();
+                eventPublisher.publishEvent(new ProductsImportedEvent(List.copyOf(saved)));
+            });
+            report.setImported(report.getImported() + chunk.size());
+        } catch (RuntimeException e) {
+            String message = "No se pudo guardar el lote: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Long line : lines) {
+                reject(report, line, message);
+            }
+        }
+        chunk.clear();
+        lines.clear();
+    }
+
+    private String validate(Product product) {
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static void reject(ProductImportResponse report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ProductImportResponse.RowError(line, message));
+        }
+    }
+
+    private interface Row {
+        long line();
+
+        Product parse() throws JsonProcessingException;
+    }
+
+    private interface RowSource {
+        Row next() throws IOException;
+    }
+
+    /**
+     * Filas NDJSON: un objeto JSON por línea; las líneas en blanco se ignoran.
+     */
+    private final class NdjsonRows implements RowSource {
+
+        private final BufferedReader reader;
+        private long line;
+
+        private NdjsonRows(Reader reader) {
+            this.reader = (BufferedReader) reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (!text.isBlank()) {
+                    long current = line;
+                    String json = text;
+                    return new Row() {
+                        @Override
+                        public long line() {
+                            return current;
+                        }
+
+                        @Override
+                        public Product parse() throws JsonProcessingException {
+                            return objectMapper.readValue(json, Product.class);
+                        }
+                    };
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Filas CSV (RFC 4180): la primera fila es la cabecera y los campos entre
+     * comillas pueden contener comas, comillas dobles y saltos de línea.
+     */
+    private static final class CsvRows implements RowSource {
+
+        private final Reader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line = 1;
+        private boolean eof;
+
+        private CsvRows(Reader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                eof = true;
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("name") || !columns.containsKey("price")) {
+                throw new BadRequestException("La cabecera CSV debe incluir las columnas name y price");
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> record;
+            long start;
+            do {
+                start = line;
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank());
+
+            long current = start;
+            List<String> fields = record;
+            return new Row() {
+                @Override
+                public long line() {
+                    return current;
+                }
+
+                @Override
+                public Product parse() {
+                    Product product = new Product();
+                    product.setName(field(fields, "name"));
+                    String price = field(fields, "price");
+                    product.setPrice(price != null ? Double.valueOf(price) : null);
+                    product.setIngredients(field(fields, "ingredients"));
+                    product.setDescription(field(fields, "description"));
+                    String stock = field(fields, "stockquantity");
+                    product.setStockQuantity(stock != null ? Integer.valueOf(stock) : null);
+                    return product;
+                }
+            };
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private List<String> readRecord() throws IOException {
+            if (eof) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                char ch = (char) c;
+                if (quoted) {
+                    if (ch == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (ch == '\n') {
+                            line++;
+                        }
+                        field.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (ch == '\n') {
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (ch != '\r') {
+                    field.append(ch);
+                }
+            }
+            eof = true;
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -1,16 +1,36 @@
 package com.frutolandia.service;
 
+import com.frutolandia.catalog.CatalogSnapshot;
+import com.frutolandia.catalog.ProductCatalog;
+import com.frutolandia.catalog.ProductFacetIndex;
+import com.frutolandia.catalog.ProductSearchIndex;
+import com.frutolandia.catalog.ProductSortIndex;
+import com.frutolandia.catalog.ProductSuggestIndex;
+import com.frutolandia.dto.CatalogChangesResponse;
+import com.frutolandia.dto.ProductFilterResponse;
+import com.frutolandia.dto.ProductPageResponse;
+import com.frutolandia.dto.ProductSuggestion;
+import com.frutolandia.event.ProductChangedEvent;
+import com.frutolandia.exception.BadRequestException;
 import com.frutolandia.exception.ResourceNotFoundException;
 import com.frutolandia.model.Product;
+import com.frutolandia.model.ProductTombstone;
 import com.frutolandia.repository.CartItemRepository;
 import com.frutolandia.repository.FavoriteRepository;
 import com.frutolandia.repository.ProductRepository;
+import com.frutolandia.repository.ProductTombstoneRepository;
+import com.frutolandia.util.ChangeVersionGenerator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Servicio para la gestión de productos.
@@ -19,6 +39,11 @@ import java.util.List;
  * incluyendo validaciones y manejo de transacciones. Interactúa con el
  * repositorio de productos para persistir y recuperar datos.
  * </p>
+ * <p>
+ * Las lecturas se sirven desde el {@link ProductCatalog} en memoria; cada
+ * escritura publica un {@link ProductChangedEvent} que actualiza el catálogo
+ * cuando la transacción se confirma.
+ * </p>
  *
  * @author Frutolandia Team
  * @version 1.0
@@ -29,9 +54,29 @@ import java.util.List;
 @Transactional
 public class ProductService {
 
+    /** Tamaño de página por defecto en la paginación por cursor. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** Tamaño de página máximo en la paginación por cursor. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Margen (en microsegundos) que se resta a la versión devuelta por la
+     * sincronización incremental, para reenviar los cambios de transacciones
+     * que todavía no habían confirmado al hacer la consulta.
+     */
+    private static final long CHANGES_GRACE_MICROS = 5_000_000L;
+
     private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
     private final CartItemRepository cartItemRepository;
     private final FavoriteRepository favoriteRepository;
+    private final ProductCatalog productCatalog;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductSortIndex productSortIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Crea un nuevo producto en la base de datos.
@@ -40,7 +85,9 @@ public class ProductService {
      * @return el producto creado con su ID generado
      */
     public Product createProduct(@NonNull Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.upserted(savedProduct));
+        return savedProduct;
     }
 
     /**
@@ -50,10 +97,13 @@ public class ProductService {
      * @return el producto encontrado
      * @throws ResourceNotFoundException si el producto no existe
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Product getProductById(@NonNull Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Producto", "id", id));
+        Product product = productCatalog.snapshot().get(id);
+        if (product == null) {
+            throw new ResourceNotFoundException("Producto", "id", id);
+        }
+        return product;
     }
 
     /**
@@ -61,9 +111,9 @@ public class ProductService {
      *
      * @return lista de todos los productos
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productCatalog.snapshot().getProducts();
     }
 
     /**
@@ -72,9 +122,235 @@ public class ProductService {
      * @param name el nombre o parte del nombre a buscar
      * @return lista de productos que coinciden con la búsqueda
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+        return productCatalog.snapshot().searchByName(name);
+    }
+
+    /**
+     * Búsqueda de texto libre sobre nombre, ingredientes y descripción.
+     * <p>
+     * Usa el índice de trigramas en memoria: no distingue mayúsculas ni
+     * tildes, admite prefijos y devuelve los resultados por relevancia.
+     * </p>
+     *
+     * @param query el texto a buscar
+     * @param limit número máximo de resultados (opcional)
+     * @return productos ordenados por relevancia
+     * @throws BadRequestException si el límite no es válido
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<Product> searchProducts(String query, Integer limit) {
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        return productSearchIndex.search(query, resolvePageSize(limit)).stream()
+                .map(snapshot::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Obtiene el catálogo ordenado desde los índices ordenados en memoria.
+     * <p>
+     * Con la ordenación por precio, el rango de precio se resuelve con
+     * búsqueda binaria; con las demás se filtra al recorrer el índice.
+     * </p>
+     *
+     * @param sort campo de ordenación: id (por defecto), price, name o stock
+     * @param order asc (por defecto) o desc
+     * @param minPrice precio mínimo inclusivo (opcional)
+     * @param maxPrice precio máximo inclusivo (opcional)
+     * @return productos en el orden pedido
+     * @throws BadRequestException si la ordenación no es válida
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<Product> getSortedProducts(String sort, String order, Double minPrice, Double maxPrice) {
+        ProductSortIndex.Field field = ProductSortIndex.Field.fromParameter(sort);
+        return toProducts(productSortIndex.sortedIds(field, isDescending(order), minPrice, maxPrice));
+    }
+
+    /**
+     * Sugerencias de autocompletado para el texto escrito por el usuario.
+     *
+     * @param prefix prefijo de cualquier palabra del nombre
+     * @param limit número máximo de sugerencias (opcional)
+     * @return productos sugeridos, con más stock primero
+     * @throws BadRequestException si el límite no es válido
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<ProductSuggestion> suggestProducts(String prefix, Integer limit) {
+        int size = limit != null ? limit : ProductSuggestIndex.TOP_K;
+        if (size < 1 || size > ProductSuggestIndex.TOP_K) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + ProductSuggestIndex.TOP_K);
+        }
+        return productSuggestIndex.suggest(prefix, size);
+    }
+
+    /**
+     * Filtra el catálogo por ingredientes, rango de precio y disponibilidad,
+     * devolviendo además el recuento de cada faceta sobre el resultado.
+     *
+     * @param ingredients ingredientes que deben estar todos presentes (opcional)
+     * @param minPrice precio mínimo inclusivo (opcional)
+     * @param maxPrice precio máximo inclusivo (opcional)
+     * @param inStock {@code true} solo con stock, {@code false} solo sin stock (opcional)
+     * @param limit número máximo de productos devueltos (opcional)
+     * @return productos coincidentes y recuentos por faceta
+     * @throws BadRequestException si el límite no es válido
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ProductFilterResponse filterProducts(List<String> ingredients, Double minPrice, Double maxPrice,
+                                                Boolean inStock, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        ProductFacetIndex.FacetResult result = productFacetIndex.filter(ingredients, minPrice, maxPrice, inStock);
+        List<Product> products = result.getProductIds().stream()
+                .map(snapshot::get)
+                .filter(Objects::nonNull)
+                .limit(pageSize)
+                .toList();
+        return new ProductFilterResponse(
+                products,
+                result.getProductIds().size(),
+                result.getIngredientCounts(),
+                result.getPriceBandCounts(),
+                result.getInStockCount()
+        );
+    }
+
+    /**
+     * Obtiene una página del catálogo usando paginación por clave.
+     * <p>
+     * Usa los mismos índices ordenados en memoria que
+     * {@link #getSortedProducts}, así que la ordenación, el sentido y el
+     * rango de precio se comportan igual con y sin paginación. La página
+     * siguiente empieza justo después de la clave del último producto
+     * devuelto, por lo que cualquier página cuesta lo mismo que la primera.
+     * Si se indica un cursor, su ordenación y su sentido prevalecen sobre
+     * {@code sort} y {@code order}; el rango de precio debe repetirse en cada
+     * petición. {@code after} solo se admite con la ordenación por ID
+     * ascendente.
+     * </p>
+     *
+     * @param sort ordenación: id (por defecto), price, name o stock
+     * @param order asc (por defecto) o desc
+     * @param minPrice precio mínimo inclusivo (opcional)
+     * @param maxPrice precio máximo inclusivo (opcional)
+     * @param after último ID recibido en la ordenación por ID
+     * @param cursor cursor opaco devuelto en la página anterior
+     * @param limit tamaño de página
+     * @return la página de productos y el cursor de la siguiente
+     * @throws BadRequestException si los parámetros no son válidos
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ProductPageResponse<Product> getProductsPage(String sort, String order, Double minPrice, Double maxPrice,
+                                                        Long after, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        ProductCursor decoded = cursor != null ? ProductCursor.decode(cursor) : null;
+        ProductSortIndex.Field field = decoded != null ? decoded.getField() : ProductSortIndex.Field.fromParameter(sort);
+        boolean descending = decoded != null ? decoded.isDescending() : isDescending(order);
+        if (after != null && (field != ProductSortIndex.Field.ID || descending)) {
+            throw new BadRequestException("El parámetro 'after' solo se admite con la ordenación por id ascendente");
+        }
+
+        Product position = null;
+        if (decoded != null) {
+            position = decoded.position();
+        } else if (after != null) {
+            position = new Product();
+            position.setId(after);
+        }
+        List<Product> rows = toProducts(productSortIndex.page(field, descending, minPrice, maxPrice,
+                position, pageSize + 1));
+        return toPage(rows, pageSize, field, descending);
+    }
+
+    /**
+     * Busca productos por nombre devolviendo una página ordenada por ID.
+     *
+     * @param name el nombre o parte del nombre a buscar
+     * @param after último ID recibido (opcional)
+     * @param cursor cursor opaco devuelto en la página anterior (opcional)
+     * @param limit tamaño de página
+     * @return la página de resultados y el cursor de la siguiente
+     */
+    @Transactional(readOnly = true)
+    public ProductPageResponse<Product> searchProductsPage(String name, Long after, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        long afterId = after != null ? after : 0L;
+        if (cursor != null) {
+            ProductCursor decoded = ProductCursor.decode(cursor);
+            if (decoded.getField() != ProductSortIndex.Field.ID || decoded.isDescending()) {
+                throw new BadRequestException("Cursor no válido para la búsqueda");
+            }
+            afterId = decoded.getId();
+        }
+        List<Product> rows = productRepository.findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                name, afterId, Limit.of(pageSize + 1));
+        return toPage(rows, pageSize, ProductSortIndex.Field.ID, false);
+    }
+
+    private static int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private static boolean isDescending(String order) {
+        if (order == null || order.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (order.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new BadRequestException("Sentido de ordenación no válido: " + order);
+    }
+
+    private List<Product> toProducts(List<Long> ids) {
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        return ids.stream()
+                .map(snapshot::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static ProductPageResponse<Product> toPage(List<Product> rows, int pageSize,
+                                                       ProductSortIndex.Field field, boolean descending) {
+        if (rows.size() <= pageSize) {
+            return new ProductPageResponse<>(rows, null);
+        }
+        List<Product> items = rows.subList(0, pageSize);
+        return new ProductPageResponse<>(items,
+                ProductCursor.after(field, descending, items.get(pageSize - 1)).encode());
+    }
+
+    /**
+     * Obtiene los cambios del catálogo posteriores a una versión.
+     * <p>
+     * Sin versión de partida devuelve el catálogo completo. La versión
+     * devuelta queda unos segundos por detrás del momento de la consulta,
+     * por lo que la siguiente petición puede repetir algún cambio reciente;
+     * los clientes deben aplicar los cambios de forma idempotente.
+     * </p>
+     *
+     * @param since última versión recibida por el cliente (opcional)
+     * @return productos creados o modificados e IDs eliminados
+     */
+    @Transactional(readOnly = true)
+    public CatalogChangesResponse getChangesSince(Long since) {
+        long version = ChangeVersionGenerator.now() - CHANGES_GRACE_MICROS;
+        if (since == null || since <= 0) {
+            return new CatalogChangesResponse(version, true, productCatalog.snapshot().getProducts(), List.of());
+        }
+        List<Product> upserts = productRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(since);
+        List<Long> deletes = productTombstoneRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(since)
+                .stream()
+                .map(ProductTombstone::getProductId)
+                .toList();
+        return new CatalogChangesResponse(Math.max(version, since), false, upserts, deletes);
     }
 
     /**
@@ -110,6 +386,7 @@ public class ProductService {
         
         @SuppressWarnings("null")
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.upserted(savedProduct));
         return savedProduct;
     }
 
@@ -132,5 +409,8 @@ public class ProductService {
         
         // Ahora sí eliminar el producto
         productRepository.deleteById(id);
+        productTombstoneRepository.save(
+                new ProductTombstone(id, ChangeVersionGenerator.next(), LocalDateTime.now()));
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 }
@@ -1,11 +1,17 @@
 package com.frutolandia.service;
 
+import com.frutolandia.cart.CartStore;
+import com.frutolandia.cart.IdleCartSweeper;
 import com.frutolandia.exception.DuplicateResourceException;
 import com.frutolandia.exception.ResourceNotFoundException;
+import com.frutolandia.inventory.StockReservationEngine;
 import com.frutolandia.model.User;
+import com.frutolandia.popularity.PopularityTracker;
+import com.frutolandia.recommendation.RecommendationEngine;
 import com.frutolandia.repository.CartItemRepository;
 import com.frutolandia.repository.FavoriteRepository;
 import com.frutolandia.repository.UserRepository;
+import com.frutolandia.util.AfterCommit;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
@@ -33,6 +39,13 @@ public class UserService {
     private final UserRepository userRepository;
     private final CartItemRepository cartItemRepository;
     private final FavoriteRepository favoriteRepository;
+    private final CartStore cartStore;
+    private final FavoriteIdCache favoriteIdCache;
+    private final PopularityTracker popularityTracker;
+    private final RecommendationEngine recommendationEngine;
+    private final StockReservationEngine stockReservationEngine;
+    private final CartSummaryCache cartSummaryCache;
+    private final IdleCartSweeper idleCartSweeper;
 
     /**
      * Crea un nuevo usuario en la base de datos.
@@ -141,9 +154,22 @@ public class UserService {
             throw new ResourceNotFoundException("Usuario", "id", id);
         }
         
+        long[] favoriteIds = favoriteIdCache.get(id);
+
         // Eliminar primero los registros relacionados
         cartItemRepository.deleteByUserId(id);
+        cartStore.discard(id);
+        stockReservationEngine.releaseAll(id);
+        AfterCommit.run(() -> {
+            cartSummaryCache.evict(id);
+            idleCartSweeper.forget(id);
+        });
         favoriteRepository.deleteByUserId(id);
+        favoriteIdCache.evict(id);
+        for (long productId : favoriteIds) {
+            popularityTracker.favoriteRemoved(productId);
+        }
+        recommendationEngine.userRemoved(id);
         
         // Ahora sí eliminar el usuario
         userRepository.deleteById(id);
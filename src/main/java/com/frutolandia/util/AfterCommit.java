@@ -0,0 +1,41 @@
+package com.frutolandia.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ejecuta acciones cuando la transacción en curso se confirma.
+ * <p>
+ * Lo usan las cachés y contadores en memoria para reflejar un cambio solo
+ * si llega a la base de datos. Fuera de una transacción la acción se
+ * ejecuta en el momento.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Ejecuta la acción tras el commit de la transacción actual, o
+     * inmediatamente si no hay ninguna activa.
+     *
+     * @param action acción a ejecutar
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
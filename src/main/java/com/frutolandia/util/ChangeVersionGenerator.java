@@ -0,0 +1,37 @@
+package com.frutolandia.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de versiones de cambio del catálogo.
+ * <p>
+ * Devuelve valores estrictamente crecientes basados en el reloj del sistema
+ * en microsegundos, de modo que siguen creciendo tras un reinicio sin
+ * necesidad de consultar la base de datos.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public final class ChangeVersionGenerator {
+
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private ChangeVersionGenerator() {
+    }
+
+    /**
+     * Devuelve la siguiente versión, mayor que todas las anteriores.
+     */
+    public static long next() {
+        return LAST.accumulateAndGet(now(), (previous, candidate) -> Math.max(previous + 1, candidate));
+    }
+
+    /**
+     * Versión correspondiente al instante actual, sin reservarla.
+     */
+    public static long now() {
+        return System.currentTimeMillis() * 1000;
+    }
+}
@@ -0,0 +1,214 @@
+package com.frutolandia.util;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Temporizador de rueda jerárquica (hierarchical timing wheel) para un gran
+ * número de vencimientos con poca precisión.
+ * <p>
+ * Programar y cancelar una tarea cuesta O(1) y no requiere un hilo por
+ * tarea. Un único hilo avanza la rueda a intervalos fijos y ejecuta las
+ * tareas vencidas de la ranura actual; la precisión es la duración de un
+ * tick. Las tareas deben ser breves porque se ejecutan en ese hilo.
+ * </p>
+ * <p>
+ * Las tareas que vencen más allá de una vuelta de la rueda se guardan en
+ * niveles superiores, cuyas ranuras abarcan cada vez más ticks. Cuando el
+ * nivel inferior completa una vuelta, la ranura correspondiente del nivel
+ * superior se reparte hacia abajo. Así, un vencimiento lejano no se revisa
+ * en cada vuelta y las tareas canceladas se descartan al repartir.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+public final class TimingWheel implements AutoCloseable {
+
+    /** Número de niveles de la jerarquía. */
+    private static final int LEVELS = 4;
+
+    private final long tickNanos;
+    private final int wheelSize;
+    private final Queue<Timeout>[][] levels;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+
+    private long tick;
+    private volatile boolean closed;
+
+    /**
+     * Crea la rueda y arranca su hilo.
+     *
+     * @param name nombre del hilo
+     * @param tickDuration duración de un tick
+     * @param wheelSize número de ranuras de cada nivel de la rueda
+     */
+    public TimingWheel(String name, Duration tickDuration, int wheelSize) {
+        this.tickNanos = tickDuration.toNanos();
+        this.wheelSize = wheelSize;
+        @SuppressWarnings("unchecked")
+        Queue<Timeout>[][] slots = (Queue<Timeout>[][]) new Queue<?>[LEVELS][wheelSize];
+        this.levels = slots;
+        for (Queue<Timeout>[] level : levels) {
+            for (int i = 0; i < wheelSize; i++) {
+                level[i] = new ArrayDeque<>();
+            }
+        }
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Programa una tarea para que se ejecute tras el retardo indicado.
+     *
+     * @param task tarea a ejecutar
+     * @param delay retardo
+     * @return manejador que permite cancelar la tarea
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + delay.toNanos());
+        pending.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (!closed) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep = deadline - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            tick++;
+            cascade();
+            transferPending();
+            expire(levels[0][(int) (tick % wheelSize)]);
+        }
+    }
+
+    /**
+     * Reparte hacia abajo las ranuras de los niveles superiores que
+     * empiezan en el tick actual, de arriba abajo para que lo que baja de
+     * un nivel se reparta a su vez en el mismo tick.
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            long span = span(level);
+            if (tick % span == 0) {
+                Queue<Timeout> slot = levels[level][(int) ((tick / span) % wheelSize)];
+                Timeout timeout;
+                while ((timeout = slot.poll()) != null) {
+                    if (!timeout.cancelled) {
+                        place(timeout);
+                    }
+                }
+            }
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            timeout.targetTick = Math.max(tick, (timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos);
+            place(timeout);
+        }
+    }
+
+    /**
+     * Coloca una tarea en el nivel más bajo cuya vuelta alcanza su
+     * vencimiento. Las que exceden el último nivel se colocan en su ranura
+     * más lejana y se recolocan al repartirla.
+     */
+    private void place(Timeout timeout) {
+        long delta = Math.min(timeout.targetTick - tick, span(LEVELS) - 1);
+        int level = 0;
+        while (delta >= span(level + 1)) {
+            level++;
+        }
+        long span = span(level);
+        levels[level][(int) (((tick + delta) / span) % wheelSize)].add(timeout);
+    }
+
+    /**
+     * Ticks que abarca una ranura del nivel indicado.
+     */
+    private long span(int level) {
+        long span = 1;
+        for (int i = 0; i < level; i++) {
+            span *= wheelSize;
+        }
+        return span;
+    }
+
+    private void expire(Queue<Timeout> slot) {
+        Iterator<Timeout> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.targetTick <= tick) {
+                iterator.remove();
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    // Un fallo en una tarea no debe detener la rueda
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tarea programada en la rueda.
+     */
+    public static final class Timeout {
+
+        private final Runnable task;
+        private final long deadlineNanos;
+        private long targetTick;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Cancela la tarea si aún no se ha ejecutado.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Tiempo restante hasta el vencimiento.
+         */
+        public Duration remaining() {
+            return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+        }
+
+        /**
+         * Indica si la tarea ha sido cancelada.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
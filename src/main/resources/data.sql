@@ -1,6 +1,9 @@
 -- Insertar datos iniciales de productos (solo si no existen)
--- Nota: Se usa MERGE para evitar duplicados
-MERGE INTO products (id, name, price, ingredients, description, stock_quantity) KEY(name) VALUES
+-- Nota: No se usa MERGE para no sobrescribir el stock ni los cambios hechos
+-- desde la aplicación en cada arranque; las unidades reservadas que quedaron
+-- descontadas tras una caída se devuelven sobre el stock guardado
+INSERT INTO products (id, name, price, ingredients, description, stock_quantity)
+SELECT * FROM (VALUES
 (1, 'Zumo de Naranja', 5.1, 'Naranja', 'Zumo natural de naranja recién exprimido', 15),
 (2, 'Zumo de Limón', 5.1, 'Limón', 'Zumo fresco de limón con hielo', 12),
 (3, 'Zumo de Pomelo', 5.1, 'Pomelo', 'Zumo de pomelo rosado natural', 10),
@@ -20,7 +23,9 @@ MERGE INTO products (id, name, price, ingredients, description, stock_quantity)
 (17, 'Batido de Chocolate Natural', 5.1, 'Chocolate en polvo,Leche', 'Batido de chocolate natural en polvo con leche', 16),
 (18, 'Batido de Chocolate Fondant', 6.5, 'Helado de chocolate fondant,Leche', 'Batido de helado de chocolate fondant con leche', 9),
 (19, 'Batido de Chocolate Blanco', 6.5, 'Helado de chocolate blanco,Chocoflakes,Leche', 'Batido de chocolate blanco con chocoflakes y leche', 8),
-(20, 'Batido de Vainilla', 6.5, 'Helado de vainilla,Leche', 'Batido suave de helado de vainilla con leche', 13);
+(20, 'Batido de Vainilla', 6.5, 'Helado de vainilla,Leche', 'Batido suave de helado de vainilla con leche', 13)
+) AS seed (id, name, price, ingredients, description, stock_quantity)
+WHERE NOT EXISTS (SELECT 1 FROM products p WHERE p.id = seed.id OR p.name = seed.name);
 
 -- Insertar datos iniciales de usuarios (solo si no existen)
 -- Nota: Se usa MERGE para evitar duplicados
@@ -0,0 +1,133 @@
+package com.frutolandia.cart;
+
+import com.frutolandia.catalog.ProductCatalog;
+import com.frutolandia.repository.CartItemRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Comparativa de los almacenamientos de carrito con una fila por línea
+ * ({@link JdbcCartStore}) y con una fila por usuario ({@link DocumentCartStore}).
+ * <p>
+ * Mide, para carritos de 1 y 15 líneas, la lectura del carrito y el cambio
+ * de cantidad de una línea, cada operación en su propia transacción como en
+ * {@code CartService}. Usa la base de datos H2 en memoria de la
+ * aplicación, así que los tiempos reflejan el coste de las sentencias y de
+ * JPA sin red. No se ejecuta con el resto de pruebas:
+ * </p>
+ * <pre>
+ * mvn test -Dtest=CartStoreBenchmark -Dfrutolandia.benchmark=true
+ * </pre>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@EnabledIfSystemProperty(named = "frutolandia.benchmark", matches = "true")
+class CartStoreBenchmark {
+
+    private static final long USER_ID = 2L;
+    private static final int[] CART_SIZES = {1, 15};
+    private static final int WARMUP_OPERATIONS = 3_000;
+    private static final int MEASURED_OPERATIONS = 5_000;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareStores() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Map<String, CartStore> stores = new LinkedHashMap<>();
+        stores.put("jdbc", new JdbcCartStore(cartItemRepository));
+        stores.put("document", new DocumentCartStore(jdbcTemplate, productCatalog));
+
+        // La primera pasada solo calienta todas las combinaciones, para que
+        // el orden de ejecución no favorezca a ningún almacenamiento
+        for (boolean reported : new boolean[] {false, true}) {
+            if (reported) {
+                System.out.printf("%-9s %5s %-6s %10s %10s%n", "store", "lines", "op", "mean_us", "p99_us");
+            }
+            for (int lines : CART_SIZES) {
+                for (Map.Entry<String, CartStore> entry : stores.entrySet()) {
+                    run(transactionTemplate, entry.getKey(), entry.getValue(), lines, reported);
+                }
+            }
+        }
+    }
+
+    private static void run(TransactionTemplate transactionTemplate, String name, CartStore store, int lines,
+                            boolean reported) {
+        fill(transactionTemplate, store, lines);
+        long[] reads = measure(i ->
+                transactionTemplate.executeWithoutResult(status -> store.findLines(USER_ID)));
+        long[] updates = measure(i ->
+                transactionTemplate.executeWithoutResult(status ->
+                        store.updateQuantity(USER_ID, 1 + i % lines, 1 + (int) (i % 5))));
+        transactionTemplate.executeWithoutResult(status -> store.clear(USER_ID));
+        if (reported) {
+            report(name, lines, "read", reads);
+            report(name, lines, "update", updates);
+        }
+    }
+
+    private static void fill(TransactionTemplate transactionTemplate, CartStore store, int lines) {
+        transactionTemplate.executeWithoutResult(status -> {
+            store.clear(USER_ID);
+            for (long productId = 1; productId <= lines; productId++) {
+                store.addQuantity(USER_ID, productId, 1);
+            }
+        });
+    }
+
+    /**
+     * Ejecuta la operación tras el calentamiento y devuelve las duraciones
+     * en nanosegundos de la ronda con menor media.
+     */
+    private static long[] measure(LongConsumer operation) {
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            operation.accept(i);
+        }
+        long[] best = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] nanos = new long[MEASURED_OPERATIONS];
+            for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+                long start = System.nanoTime();
+                operation.accept(i);
+                nanos[i] = System.nanoTime() - start;
+            }
+            if (best == null || Arrays.stream(nanos).sum() < Arrays.stream(best).sum()) {
+                best = nanos;
+            }
+        }
+        return best;
+    }
+
+    private static void report(String store, int lines, String operation, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1_000;
+        double p99 = sorted[(int) (sorted.length * 0.99) - 1] / 1_000.0;
+        System.out.printf("%-9s %5d %-6s %10.1f %10.1f%n", store, lines, operation, mean, p99);
+    }
+}
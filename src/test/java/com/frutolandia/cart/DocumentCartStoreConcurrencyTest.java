@@ -0,0 +1,81 @@
+package com.frutolandia.cart;
+
+import com.frutolandia.catalog.ProductCatalog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que {@link DocumentCartStore} no pierde ni rechaza cambios
+ * cuando varias transacciones modifican a la vez el mismo carrito.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class DocumentCartStoreConcurrencyTest {
+
+    private static final long USER_ID = 2L;
+    private static final long PRODUCT_ID = 1L;
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 25;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void clearCart() {
+        jdbcTemplate.update("DELETE FROM cart_documents WHERE user_id = ?", USER_ID);
+    }
+
+    @Test
+    void concurrentAddsInTransactionsAllApply() throws Exception {
+        DocumentCartStore store = new DocumentCartStore(jdbcTemplate, productCatalog);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                        transactionTemplate.executeWithoutResult(status ->
+                                store.addQuantity(USER_ID, PRODUCT_ID, 1));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+
+            assertThat(store.findLines(USER_ID))
+                    .singleElement()
+                    .satisfies(line -> assertThat(line.quantity()).isEqualTo(THREADS * ADDS_PER_THREAD));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
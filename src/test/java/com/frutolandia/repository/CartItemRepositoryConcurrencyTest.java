@@ -0,0 +1,87 @@
+package com.frutolandia.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que el upsert de {@link CartItemRepositoryCustom#addQuantity}
+ * suma correctamente las cantidades cuando varias peticiones añaden el
+ * mismo producto al carrito a la vez.
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartItemRepositoryConcurrencyTest {
+
+    private static final long USER_ID = 2L;
+    private static final long PRODUCT_ID = 1L;
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 25;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearCart() {
+        jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", USER_ID);
+    }
+
+    @Test
+    void concurrentAddsLeaveOneRowWithTheSum() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<List<Integer>> adds = () -> {
+                    start.await();
+                    List<Integer> seen = new ArrayList<>();
+                    for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                        seen.add(cartItemRepository.addQuantity(USER_ID, PRODUCT_ID, 1).quantity());
+                    }
+                    return seen;
+                };
+                results.add(executor.submit(adds));
+            }
+            start.countDown();
+
+            List<Integer> quantities = new ArrayList<>();
+            for (Future<List<Integer>> result : results) {
+                quantities.addAll(result.get());
+            }
+
+            int total = THREADS * ADDS_PER_THREAD;
+            assertThat(jdbcTemplate.queryForList(
+                    "SELECT quantity FROM cart_items WHERE user_id = ? AND product_id = ?",
+                    Integer.class, USER_ID, PRODUCT_ID))
+                    .containsExactly(total);
+            // Cada llamada devuelve la cantidad que dejó su propio upsert
+            assertThat(quantities).containsExactlyInAnyOrderElementsOf(
+                    IntStream.rangeClosed(1, total).boxed().toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.frutolandia.service;
+
+import com.frutolandia.dto.CartItemResponse;
+import com.frutolandia.model.CartItem;
+import com.frutolandia.model.Favorite;
+import com.frutolandia.model.Product;
+import com.frutolandia.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba cuántas sentencias SQL cuesta leer el carrito y los favoritos
+ * de un usuario a través de los servicios que usan los endpoints, tenga las
+ * líneas que tenga.
+ * <p>
+ * El carrito se lee con {@code JdbcTemplate}, que no aparece en las
+ * estadísticas de Hibernate, así que las sentencias se cuentan envolviendo
+ * el {@link DataSource}; solo se cuentan las del hilo de la prueba, para
+ * no mezclar las de los hilos en segundo plano. En los favoritos se
+ * comprueba además {@link Statistics#getPrepareStatementCount()}.
+ * </p>
+ *
+ * @author Frutolandia Team
+ * @version 1.0
+ * @since 2026-10-17
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class CartAndFavoriteReadStatementsTest {
+
+    private static final long USER_ID = 2L;
+    private static final String USER_EMAIL = "cliente@frutolandia.com";
+    private static final int LINES = 8;
+
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    private static volatile Thread measured;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void addLines() {
+        User user = entityManager.find(User.class, USER_ID);
+        for (long productId = 1; productId <= LINES; productId++) {
+            Product product = entityManager.find(Product.class, productId);
+            entityManager.persist(new CartItem(user, product, 1));
+            entityManager.persist(new Favorite(user, product));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        STATEMENTS.set(0);
+        measured = Thread.currentThread();
+    }
+
+    @Test
+    void cartItemsAreOneStatement() {
+        List<CartItemResponse> items = cartService.getCartItems(USER_ID);
+
+        assertThat(items).hasSize(LINES);
+        assertThat(STATEMENTS.get()).isEqualTo(1);
+    }
+
+    @Test
+    void cartItemViewsAreOneStatement() {
+        assertThat(cartService.getCartItemViews(USER_ID)).hasSize(LINES);
+        assertThat(STATEMENTS.get()).isEqualTo(1);
+    }
+
+    @Test
+    void favoritesAreUserLookupPlusOneStatement() {
+        List<Product> favorites = favoriteService.getFavoritesByUserEmail(USER_EMAIL);
+        favorites.forEach(Product::getName);
+
+        assertThat(favorites).hasSize(LINES);
+        assertThat(STATEMENTS.get()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void favoriteViewsAreOneStatement() {
+        assertThat(favoriteService.getFavoriteViewsByUserEmail(USER_EMAIL)).hasSize(LINES);
+        assertThat(STATEMENTS.get()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Envuelve el {@link DataSource} para contar las sentencias que prepara
+     * el hilo de la prueba.
+     */
+    @TestConfiguration
+    static class StatementCounting {
+
+        private static final Set<String> STATEMENT_METHODS =
+                Set.of("prepareStatement", "prepareCall", "createStatement");
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return proxy(DataSource.class, dataSource, (method, result) ->
+                            method.getName().equals("getConnection")
+                                    ? proxy(Connection.class, (Connection) result, StatementCounting::count)
+                                    : result);
+                }
+            };
+        }
+
+        private static Object count(Method method, Object result) {
+            if (STATEMENT_METHODS.contains(method.getName()) && Thread.currentThread() == measured) {
+                STATEMENTS.incrementAndGet();
+            }
+            return result;
+        }
+
+        private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (instance, method, args) -> {
+                        try {
+                            return handler.handle(method, method.invoke(target, args));
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }));
+        }
+
+        @FunctionalInterface
+        private interface ResultHandler {
+            Object handle(Method method, Object result);
+        }
+    }
+}